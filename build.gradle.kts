@@ -4,6 +4,7 @@ import org.gradle.api.tasks.testing.logging.TestLogEvent
 plugins {
     alias(libs.plugins.hivemq.extension)
     alias(libs.plugins.defaults)
+    alias(libs.plugins.jmh)
     alias(libs.plugins.oci)
     alias(libs.plugins.spotless)
 }
@@ -37,8 +38,10 @@ tasks.compileJava {
 
 dependencies {
     compileOnly(libs.jetbrains.annotations)
-    implementation(libs.owner)
     implementation(libs.netty.resolver.dns)
+    implementation(libs.netty.transportClassesEpoll)
+    runtimeOnly(variantOf(libs.netty.transportNativeEpoll) { classifier("linux-x86_64") })
+    runtimeOnly(variantOf(libs.netty.transportNativeEpoll) { classifier("linux-aarch_64") })
     implementation(libs.commonsValidator)
 }
 
@@ -85,6 +88,19 @@ oci {
     }
 }
 
+jmh {
+    jmhVersion = libs.versions.jmh
+    // report the allocation rate and GC activity per discovery run
+    profilers = listOf("gc")
+    // see https://netty.io/wiki/java-24-and-sun.misc.unsafe.html
+    jvmArgs = listOf("--enable-native-access=ALL-UNNAMED", "--sun-misc-unsafe-memory-access=allow")
+}
+
+configurations.jmhImplementation {
+    // the benchmarks run the extension outside of HiveMQ, so they need the extension SDK at runtime
+    extendsFrom(configurations.compileOnly.get())
+}
+
 // see https://javadoc.io/doc/org.mockito/mockito-core/latest/org.mockito/org/mockito/Mockito.html#0.3
 val mockitoAgent = configurations.create("mockitoAgent") {
     isCanBeConsumed = false
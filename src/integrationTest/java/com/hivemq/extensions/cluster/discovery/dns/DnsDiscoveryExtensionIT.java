@@ -55,6 +55,8 @@ class DnsDiscoveryExtensionIT {
             "com_hivemq_dns_cluster_discovery_extension_query_failed_count";
     private static final @NotNull String IP_COUNT_METRIC =
             "com_hivemq_dns_cluster_discovery_extension_resolved_addresses";
+    private static final @NotNull String TRUNCATED_METRIC =
+            "com_hivemq_dns_cluster_discovery_extension_query_truncated_count";
 
     private @NotNull TestDnsServer testDnsServer;
     private @NotNull HiveMQContainer node;
@@ -137,6 +139,39 @@ class DnsDiscoveryExtensionIT {
         }
     }
 
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void largeAnswer_truncatedOverUdp_allNodesResolvedOverTcp() throws Exception {
+        final var largeDnsServer = new TestDnsServer(Set.of(DNS_DISCOVERY_ADDRESS), 300);
+        largeDnsServer.start();
+        final var config = """
+                dnsServerAddress=host.docker.internal:%d
+                discoveryAddress=%s
+                resolutionTimeout=30
+                reloadInterval=60
+                """.formatted(largeDnsServer.localAddress().getPort(), DNS_DISCOVERY_ADDRESS);
+
+        final var largeNode =
+                new HiveMQContainer(OciImages.getImageName("hivemq/extensions/hivemq-dns-cluster-discovery")
+                        .asCompatibleSubstituteFor("hivemq/hivemq4"))
+                        .withHiveMQConfig(MountableFile.forClasspathResource("config.xml"))
+                        .withCopyToContainer(Transferable.of(config),
+                                "/opt/hivemq/extensions/hivemq-dns-cluster-discovery/conf/config.properties")
+                        .withExposedPorts(9399)
+                        .withExtraHost("host.docker.internal", "host-gateway")
+                        .withEnv("HIVEMQ_DISABLE_STATISTICS", "true");
+
+        try (largeNode) {
+            largeNode.start();
+            final var metrics = getMetrics(largeNode);
+            assertThat(metrics.get(SUCCESS_METRIC)).isEqualTo(1);
+            assertThat(metrics.get(IP_COUNT_METRIC)).isEqualTo(300);
+            assertThat(metrics.get(TRUNCATED_METRIC)).isEqualTo(1);
+        } finally {
+            largeDnsServer.stop();
+        }
+    }
+
     private @NotNull Map<String, Float> getMetrics() throws Exception {
         return getMetrics(node);
     }
@@ -148,7 +183,8 @@ class DnsDiscoveryExtensionIT {
                     .uri(URI.create("http://" + container.getHost() + ":" + container.getMappedPort(9399) + "/metrics"))
                     .build();
             final var response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            return parseMetrics(response.body(), Set.of(SUCCESS_METRIC, FAILURE_METRIC, IP_COUNT_METRIC));
+            return parseMetrics(response.body(),
+                    Set.of(SUCCESS_METRIC, FAILURE_METRIC, IP_COUNT_METRIC, TRUNCATED_METRIC));
         }
     }
 
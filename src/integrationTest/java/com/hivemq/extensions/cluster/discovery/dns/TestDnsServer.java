@@ -28,15 +28,18 @@ import org.apache.directory.server.dns.protocol.DnsProtocolHandler;
 import org.apache.directory.server.dns.protocol.DnsUdpEncoder;
 import org.apache.directory.server.dns.store.DnsAttribute;
 import org.apache.directory.server.dns.store.RecordStore;
+import org.apache.directory.server.protocol.shared.transport.TcpTransport;
 import org.apache.directory.server.protocol.shared.transport.UdpTransport;
 import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.CumulativeProtocolDecoder;
 import org.apache.mina.filter.codec.ProtocolCodecFactory;
 import org.apache.mina.filter.codec.ProtocolCodecFilter;
 import org.apache.mina.filter.codec.ProtocolDecoder;
 import org.apache.mina.filter.codec.ProtocolDecoderAdapter;
 import org.apache.mina.filter.codec.ProtocolDecoderOutput;
 import org.apache.mina.filter.codec.ProtocolEncoder;
+import org.apache.mina.filter.codec.ProtocolEncoderAdapter;
 import org.apache.mina.filter.codec.ProtocolEncoderOutput;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -44,6 +47,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -57,6 +61,8 @@ import java.util.Set;
  */
 class TestDnsServer extends DnsServer {
 
+    private static final int MAX_UDP_PAYLOAD_SIZE = 512;
+
     private final @NotNull RecordStore store;
 
     TestDnsServer(final @NotNull Set<String> domains, final int numOfRecords) {
@@ -67,7 +73,6 @@ class TestDnsServer extends DnsServer {
     public void start() throws IOException {
         final var address = new InetSocketAddress("0.0.0.0", 0);
         final var transport = new UdpTransport(address.getHostName(), address.getPort());
-        setTransports(transport);
 
         final var acceptor = transport.getAcceptor();
         acceptor.setHandler(new DnsProtocolHandler(this, store) {
@@ -81,6 +86,22 @@ class TestDnsServer extends DnsServer {
 
         // start the listener
         acceptor.bind();
+
+        // truncated UDP answers are retried over TCP on the same port
+        final var port = ((InetSocketAddress) acceptor.getLocalAddress()).getPort();
+        final var tcpTransport = new TcpTransport(address.getHostName(), port);
+        final var tcpAcceptor = tcpTransport.getAcceptor();
+        tcpAcceptor.setHandler(new DnsProtocolHandler(this, store) {
+            @Override
+            public void sessionCreated(final @NotNull IoSession session) {
+                session.getFilterChain()
+                        .addFirst("codec", new ProtocolCodecFilter(new TestDnsProtocolTcpCodecFactory()));
+            }
+        });
+        tcpAcceptor.setReuseAddress(true);
+        tcpAcceptor.bind();
+
+        setTransports(transport, tcpTransport);
     }
 
     public @NotNull InetSocketAddress localAddress() {
@@ -99,9 +120,14 @@ class TestDnsServer extends DnsServer {
                         final @NotNull IoSession session,
                         final @NotNull Object message,
                         final @NotNull ProtocolEncoderOutput out) {
-                    final var buffer = IoBuffer.allocate(1024);
+                    final var buffer = IoBuffer.allocate(1024).setAutoExpand(true);
                     final var dnsMessage = (DnsMessage) message;
                     encoder.encode(buffer, dnsMessage);
+                    // like a DNS server without EDNS0, answers that do not fit into a UDP message are truncated
+                    if (buffer.position() > MAX_UDP_PAYLOAD_SIZE) {
+                        buffer.clear();
+                        encoder.encode(buffer, truncate(dnsMessage));
+                    }
                     buffer.flip();
                     out.write(buffer);
                 }
@@ -125,6 +151,67 @@ class TestDnsServer extends DnsServer {
         }
     }
 
+    private static @NotNull DnsMessage truncate(final @NotNull DnsMessage message) {
+        return new DnsMessage(message.getTransactionId(),
+                message.getMessageType(),
+                message.getOpCode(),
+                message.isAuthoritativeAnswer(),
+                true,
+                message.isRecursionDesired(),
+                message.isRecursionAvailable(),
+                message.isReserved(),
+                message.isAcceptNonAuthenticatedData(),
+                message.getResponseCode(),
+                message.getQuestionRecords(),
+                List.of(),
+                List.of(),
+                List.of());
+    }
+
+    private static final class TestDnsProtocolTcpCodecFactory implements ProtocolCodecFactory {
+
+        @Override
+        public @NotNull ProtocolEncoder getEncoder(final @NotNull IoSession session) {
+            return new ProtocolEncoderAdapter() {
+                private final @NotNull DnsMessageEncoder encoder = new DnsMessageEncoder();
+
+                @Override
+                public void encode(
+                        final @NotNull IoSession session,
+                        final @NotNull Object message,
+                        final @NotNull ProtocolEncoderOutput out) {
+                    final var buffer = IoBuffer.allocate(1024).setAutoExpand(true);
+                    // the message is prefixed with its length
+                    buffer.putShort((short) 0);
+                    encoder.encode(buffer, (DnsMessage) message);
+                    buffer.putShort(0, (short) (buffer.position() - 2));
+                    buffer.flip();
+                    out.write(buffer);
+                }
+            };
+        }
+
+        @Override
+        public @NotNull ProtocolDecoder getDecoder(final @NotNull IoSession session) {
+            return new CumulativeProtocolDecoder() {
+                private final @NotNull DnsMessageDecoder decoder = new DnsMessageDecoder();
+
+                @Override
+                protected boolean doDecode(
+                        final @NotNull IoSession session,
+                        final @NotNull IoBuffer in,
+                        final @NotNull ProtocolDecoderOutput out) throws IOException {
+                    if (!in.prefixedDataAvailable(2)) {
+                        return false;
+                    }
+                    final var length = in.getUnsignedShort();
+                    out.write(decoder.decode(in.getSlice(length)));
+                    return true;
+                }
+            };
+        }
+    }
+
     private static final class FixedRecordStore implements RecordStore {
 
         private final @NotNull Set<String> domains;
@@ -141,7 +228,7 @@ class TestDnsServer extends DnsServer {
             if (domains.contains(name) && (questionRecord.getRecordType() == RecordType.A)) {
                 final var records = new HashSet<ResourceRecord>();
                 for (int i = 0; i < numOfRecords; i++) {
-                    records.add(newARecord(name, i + ".2.3.4"));
+                    records.add(newARecord(name, (i / 256 + 1) + "." + (i % 256) + ".3.4"));
                 }
                 return records;
             }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DnsRecordType;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * In-process UDP DNS server for benchmarks. It answers A queries for a fixed set of names from pre-encoded answers, so
+ * answering a query allocates next to nothing and does not distort the allocation profile of the benchmark.
+ * <p>
+ * One UDP message cannot hold an arbitrary number of records, so the records are spread over multiple names.
+ */
+class BenchmarkDnsServer implements AutoCloseable {
+
+    /**
+     * Maximum number of A records per name, so one answer (16 bytes per record) stays within the default payload size
+     * of 4096 bytes of the resolver.
+     */
+    static final int RECORDS_PER_NAME = 250;
+
+    private static final int HEADER_LENGTH = 12;
+    private static final int FLAGS_NOERROR = 0x8180;
+    private static final int FLAGS_NXDOMAIN = 0x8183;
+    private static final int CLASS_IN = 1;
+    private static final int TTL = 30;
+
+    private final @NotNull Channel channel;
+    private final @NotNull List<String> names;
+
+    private BenchmarkDnsServer(final @NotNull Channel channel, final @NotNull List<String> names) {
+        this.channel = channel;
+        this.names = names;
+    }
+
+    /**
+     * Starts the server with the given number of distinct A records, spread over as few names as possible.
+     *
+     * @param eventLoopGroup the event loop group of the server channel
+     * @param records        the total number of A records
+     * @return the started server
+     */
+    static @NotNull BenchmarkDnsServer start(final @NotNull EventLoopGroup eventLoopGroup, final int records)
+            throws InterruptedException {
+        final var names = new ArrayList<String>();
+        // keyed by the question section (name, type and class), ByteBuf equality compares the content
+        final var answers = new HashMap<ByteBuf, Answer>();
+        var address = 0x0A000001; // 10.0.0.1
+        for (var remaining = records; remaining > 0; remaining -= RECORDS_PER_NAME) {
+            final var name = "node" + names.size() + ".hivemq.benchmark";
+            final var count = Math.min(remaining, RECORDS_PER_NAME);
+            final var body = Unpooled.buffer(count * 16);
+            for (var i = 0; i < count; i++) {
+                // pointer to the name of the question section
+                body.writeShort(0xC000 | HEADER_LENGTH);
+                body.writeShort(DnsRecordType.A.intValue()).writeShort(CLASS_IN).writeInt(TTL);
+                body.writeShort(4).writeInt(address++);
+            }
+            names.add(name);
+            answers.put(question(name, DnsRecordType.A), new Answer(count, body));
+            answers.put(question(name, DnsRecordType.AAAA), new Answer(0, Unpooled.EMPTY_BUFFER));
+        }
+
+        final var channel = new Bootstrap().group(eventLoopGroup)
+                .channel(NioDatagramChannel.class)
+                .handler(new SimpleChannelInboundHandler<DatagramPacket>() {
+                    @Override
+                    protected void channelRead0(
+                            final @NotNull ChannelHandlerContext ctx,
+                            final @NotNull DatagramPacket packet) {
+                        final var query = packet.content();
+                        final var id = query.getUnsignedShort(query.readerIndex());
+                        final var questionStart = query.readerIndex() + HEADER_LENGTH;
+                        var questionEnd = questionStart;
+                        while (query.getUnsignedByte(questionEnd) != 0) {
+                            questionEnd += query.getUnsignedByte(questionEnd) + 1;
+                        }
+                        // root label, type and class
+                        questionEnd += 5;
+                        final var question = query.slice(questionStart, questionEnd - questionStart);
+                        final var answer = answers.get(question);
+
+                        final var body = answer != null ? answer.body : Unpooled.EMPTY_BUFFER;
+                        final var response =
+                                ctx.alloc().ioBuffer(HEADER_LENGTH + question.readableBytes() + body.readableBytes());
+                        response.writeShort(id)
+                                .writeShort(answer != null ? FLAGS_NOERROR : FLAGS_NXDOMAIN)
+                                .writeShort(1)
+                                .writeShort(answer != null ? answer.count : 0)
+                                .writeShort(0)
+                                .writeShort(0);
+                        response.writeBytes(question).writeBytes(body, body.readerIndex(), body.readableBytes());
+                        ctx.writeAndFlush(new DatagramPacket(response, packet.sender()));
+                    }
+                })
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .sync()
+                .channel();
+        return new BenchmarkDnsServer(channel, List.copyOf(names));
+    }
+
+    private static @NotNull ByteBuf question(final @NotNull String name, final @NotNull DnsRecordType type) {
+        final var question = Unpooled.buffer();
+        for (final var label : name.split("\\.")) {
+            question.writeByte(label.length()).writeBytes(label.getBytes());
+        }
+        question.writeByte(0);
+        question.writeShort(type.intValue()).writeShort(CLASS_IN);
+        return question;
+    }
+
+    /**
+     * @return the names that hold the A records
+     */
+    @NotNull List<String> getNames() {
+        return names;
+    }
+
+    @NotNull InetSocketAddress getAddress() {
+        return (InetSocketAddress) channel.localAddress();
+    }
+
+    @Override
+    public void close() {
+        channel.close().syncUninterruptibly();
+    }
+
+    private static class Answer {
+
+        private final int count;
+        private final @NotNull ByteBuf body;
+
+        private Answer(final int count, final @NotNull ByteBuf body) {
+            this.count = count;
+            this.body = body;
+        }
+    }
+}
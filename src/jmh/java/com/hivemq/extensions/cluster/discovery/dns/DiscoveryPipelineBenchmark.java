@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterDiscoveryInput;
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterDiscoveryOutput;
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.ConfigurationFileReader;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks one discovery run: resolving the discovery addresses against an in-process DNS server, validating and
+ * mapping the addresses to cluster nodes and calculating the membership delta. The resolver runs on NIO and on the
+ * transport the extension detects (native epoll on Linux, NIO otherwise), the DNS server always runs on NIO.
+ * <p>
+ * With {@code rebuildResolver} the DNS resolver is closed before every run, so it is built again for every run as it
+ * was before the resolver was kept. This is the baseline for the long-lived resolver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiscoveryPipelineBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int records;
+
+    // NATIVE falls back to NIO where epoll is not available, so the benchmarks run on every platform
+    @Param({"NIO", "NATIVE"})
+    public String transport;
+
+    @Param({"false", "true"})
+    public boolean rebuildResolver;
+
+    private EventLoopGroup serverEventLoopGroup;
+    private BenchmarkDnsServer dnsServer;
+    private Path extensionHome;
+    private DnsDiscoveryCallback callback;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException, IOException {
+        serverEventLoopGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+        dnsServer = BenchmarkDnsServer.start(serverEventLoopGroup, records);
+
+        // the answer cache is disabled, so every run goes over the wire
+        final var properties = new Properties();
+        properties.setProperty("discoveryAddress", String.join(",", dnsServer.getNames()));
+        properties.setProperty("dnsServerAddress", "127.0.0.1:" + dnsServer.getAddress().getPort());
+        properties.setProperty("resolutionTimeout", "10");
+        properties.setProperty("reloadInterval", "3600");
+        properties.setProperty("cacheMaxTtl", "0");
+        properties.setProperty("cacheNegativeTtl", "0");
+        extensionHome = Files.createTempDirectory("dns-discovery-benchmark");
+        final var configPath = Files.createDirectories(extensionHome.resolve("conf")).resolve("config.properties");
+        try (final var writer = Files.newBufferedWriter(configPath)) {
+            properties.store(writer, null);
+        }
+
+        final var configuration =
+                DnsDiscoveryConfigExtended.createInstance(new ConfigurationFileReader(extensionHome.toFile()).get());
+        callback = new DnsDiscoveryCallback(configuration,
+                new DnsDiscoveryMetrics(new MetricRegistry()),
+                "NATIVE".equals(transport) ? DnsTransport.detect() : DnsTransport.valueOf(transport),
+                System::nanoTime);
+        // wait for the initial background resolution, so the measured runs see a stable membership
+        final var input = new BenchmarkInput();
+        final var output = new BenchmarkOutput();
+        callback.init(input, output);
+        while (output.reloadInterval == DnsDiscoveryCallback.PENDING_RELOAD_INTERVAL) {
+            Thread.sleep(10);
+            callback.reload(input, output);
+        }
+        if (output.nodes.size() != records) {
+            throw new IllegalStateException("Discovered " + output.nodes.size() + " of " + records + " nodes.");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        callback.destroy(new BenchmarkInput());
+        dnsServer.close();
+        serverEventLoopGroup.shutdownGracefully().syncUninterruptibly();
+        try (final var paths = Files.walk(extensionHome)) {
+            for (final var path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public @NotNull MembershipDelta discover() {
+        if (rebuildResolver) {
+            callback.getNodeResolver().close();
+        }
+        return callback.loadOtherNodes().thenApply(callback::updateMembership).join();
+    }
+
+    private static class BenchmarkInput implements ClusterDiscoveryInput {
+
+        private final @NotNull ClusterNodeAddress ownAddress = new ClusterNodeAddress("127.0.0.1", 7800);
+
+        @Override
+        public @NotNull ClusterNodeAddress getOwnAddress() {
+            return ownAddress;
+        }
+
+        @Override
+        public @NotNull String getOwnClusterId() {
+            return "benchmark";
+        }
+
+        @Override
+        public int getReloadInterval() {
+            return 3600;
+        }
+    }
+
+    private static class BenchmarkOutput implements ClusterDiscoveryOutput {
+
+        private @NotNull List<ClusterNodeAddress> nodes = List.of();
+        private int reloadInterval;
+
+        @Override
+        public void provideCurrentNodes(final @NotNull List<ClusterNodeAddress> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        public void setReloadInterval(final int reloadInterval) {
+            this.reloadInterval = reloadInterval;
+        }
+    }
+}
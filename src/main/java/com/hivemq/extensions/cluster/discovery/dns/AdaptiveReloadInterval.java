@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reload interval that adapts to the cluster membership. It drops to the configured minimum when the cluster nodes
+ * changed or the DNS resolution failed and doubles towards the configured maximum while the cluster nodes stay stable.
+ * Without valid bounds the configured fixed reload interval is used.
+ * <p>
+ * With a configured jitter, each reload delay is randomly spread around the reload interval and the first delay is a
+ * phase offset derived from the own address, so cluster nodes that started together do not query in lockstep.
+ */
+class AdaptiveReloadInterval {
+
+    // a larger jitter would let reload delays approach zero
+    static final int MAX_JITTER_PERCENT = 50;
+    private static final long MIN_DELAY_MILLIS = 1000;
+
+    private volatile @NotNull DnsDiscoveryConfigExtended configuration;
+
+    // 0 until the first resolution completed
+    private volatile int current;
+
+    AdaptiveReloadInterval(final @NotNull DnsDiscoveryConfigExtended configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Replaces the configuration, the changed bounds apply to the current reload interval right away.
+     *
+     * @param configuration the new configuration
+     */
+    void updateConfiguration(final @NotNull DnsDiscoveryConfigExtended configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @return the current reload interval in seconds
+     */
+    int get() {
+        if (!isAdaptive()) {
+            return configuration.getReloadInterval();
+        }
+        final var current = this.current;
+        return current > 0 ? clamp(current) : configuration.getReloadIntervalMin();
+    }
+
+    /**
+     * @return the delay until the next reload in milliseconds, the current reload interval with the jitter applied
+     */
+    long nextDelayMillis() {
+        final var intervalMillis = TimeUnit.SECONDS.toMillis(get());
+        final var spread = intervalMillis * jitterPercent() / 100;
+        if (spread <= 0) {
+            return intervalMillis;
+        }
+        return Math.max(MIN_DELAY_MILLIS,
+                intervalMillis + ThreadLocalRandom.current().nextLong(-spread, spread + 1));
+    }
+
+    /**
+     * Returns the delay until the first reload after the initial one. With jitter, it is a phase offset within the
+     * current reload interval that is stable for the given address but differs between addresses.
+     *
+     * @param ownAddress the cluster address of this node
+     * @return the delay in milliseconds
+     */
+    long firstDelayMillis(final @NotNull ClusterNodeAddress ownAddress) {
+        final var intervalMillis = TimeUnit.SECONDS.toMillis(get());
+        if (jitterPercent() <= 0 || intervalMillis <= MIN_DELAY_MILLIS) {
+            return intervalMillis;
+        }
+        final var hash = mix(((long) ownAddress.getHost().hashCode() << 32) | ownAddress.getPort());
+        return Math.max(MIN_DELAY_MILLIS, Math.floorMod(hash, intervalMillis));
+    }
+
+    private int jitterPercent() {
+        return Math.max(0, Math.min(MAX_JITTER_PERCENT, configuration.getReloadJitter()));
+    }
+
+    /**
+     * Finalizer of MurmurHash3, so addresses that differ in a single digit still get unrelated phase offsets.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Updates the reload interval after a successful DNS resolution.
+     *
+     * @param changed {@code true} if the resolved cluster nodes differ from the previous ones
+     */
+    void onSuccess(final boolean changed) {
+        if (!isAdaptive()) {
+            return;
+        }
+        final var current = this.current;
+        // the current interval is clamped first, the bounds might have changed since it was set
+        this.current = changed || current <= 0 ? configuration.getReloadIntervalMin() : clamp(clamp(current) * 2L);
+    }
+
+    /**
+     * Updates the reload interval after a failed DNS resolution.
+     */
+    void onFailure() {
+        if (isAdaptive()) {
+            current = configuration.getReloadIntervalMin();
+        }
+    }
+
+    private boolean isAdaptive() {
+        final var min = configuration.getReloadIntervalMin();
+        return min > 0 && configuration.getReloadIntervalMax() >= min;
+    }
+
+    private int clamp(final long interval) {
+        return (int) Math.max(configuration.getReloadIntervalMin(),
+                Math.min(configuration.getReloadIntervalMax(), interval));
+    }
+}
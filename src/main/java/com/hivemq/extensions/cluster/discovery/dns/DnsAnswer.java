@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The node addresses or the zones of the nodes of a discovery DNS answer together with the smallest TTL of its records.
+ */
+class DnsAnswer {
+
+    private final @NotNull List<InetSocketAddress> addresses;
+    private final @NotNull Map<String, String> zones;
+    private final long ttl;
+
+    DnsAnswer(final @NotNull List<InetSocketAddress> addresses, final long ttl) {
+        this(addresses, Map.of(), ttl);
+    }
+
+    DnsAnswer(final @NotNull Map<String, String> zones, final long ttl) {
+        this(List.of(), zones, ttl);
+    }
+
+    private DnsAnswer(
+            final @NotNull List<InetSocketAddress> addresses,
+            final @NotNull Map<String, String> zones,
+            final long ttl) {
+        this.addresses = addresses;
+        this.zones = zones;
+        this.ttl = ttl;
+    }
+
+    @NotNull List<InetSocketAddress> getAddresses() {
+        return addresses;
+    }
+
+    /**
+     * @return the zones by the IP address of the cluster nodes of a TXT answer, empty for address answers
+     */
+    @NotNull Map<String, String> getZones() {
+        return zones;
+    }
+
+    /**
+     * @return the smallest TTL of the answer records in seconds, 0 if the answer must not be cached
+     */
+    long getTtl() {
+        return ttl;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * TTL-aware cache for the answers of the discovery DNS queries, the address answers and the TXT answers with the zones
+ * of a discovery address are cached under their own keys.
+ * <p>
+ * Positive answers are kept for the smallest TTL of their records (bounded by the configured maximum TTL), negative
+ * answers (NXDOMAIN or no records) are kept for the configured negative TTL. Once the configured fraction of the TTL
+ * has passed, a cached answer is still served but should be refreshed ahead of its expiry.
+ */
+class DnsDiscoveryCache {
+
+    private final @NotNull Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long maxTtlNanos;
+    private final long negativeTtlNanos;
+    private final double refreshAheadFactor;
+    private final @NotNull LongSupplier nanoTime;
+
+    DnsDiscoveryCache(final int maxTtl, final int negativeTtl, final double refreshAheadFactor) {
+        this(maxTtl, negativeTtl, refreshAheadFactor, System::nanoTime);
+    }
+
+    DnsDiscoveryCache(
+            final int maxTtl,
+            final int negativeTtl,
+            final double refreshAheadFactor,
+            final @NotNull LongSupplier nanoTime) {
+        this.maxTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, maxTtl));
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, negativeTtl));
+        this.refreshAheadFactor = refreshAheadFactor;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the cached answer for the given key, if it is not expired yet.
+     *
+     * @param key the queried name and record type
+     * @return the cached entry or {@code null} if nothing (or only an expired answer) is cached
+     */
+    @Nullable Entry get(final @NotNull String key) {
+        final var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nanoTime.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Caches a positive answer for the given key.
+     *
+     * @param key    the queried name and record type
+     * @param answer the answer, it is kept for the smallest TTL of its records
+     */
+    void putAnswer(final @NotNull String key, final @NotNull DnsAnswer answer) {
+        final var ttlNanos = Math.min(TimeUnit.SECONDS.toNanos(Math.max(0, answer.getTtl())), maxTtlNanos);
+        if (ttlNanos <= 0) {
+            entries.remove(key);
+            return;
+        }
+        final var now = nanoTime.getAsLong();
+        final var refreshAt = now + (long) (ttlNanos * refreshAheadFactor);
+        entries.put(key, new Entry(answer, null, refreshAt, now + ttlNanos));
+    }
+
+    /**
+     * Caches a negative answer (NXDOMAIN or no records) for the given key.
+     *
+     * @param key the queried name and record type
+     */
+    void putNegative(final @NotNull String key) {
+        putNegative(key, null);
+    }
+
+    /**
+     * Caches a negative answer (NXDOMAIN or no records) for the given key.
+     *
+     * @param key          the queried name and record type
+     * @param failureCause the cause of the negative answer, e.g. the NXDOMAIN response code
+     */
+    void putNegative(final @NotNull String key, final @Nullable Throwable failureCause) {
+        if (negativeTtlNanos <= 0) {
+            entries.remove(key);
+            return;
+        }
+        final var expiresAt = nanoTime.getAsLong() + negativeTtlNanos;
+        entries.put(key, new Entry(null, failureCause, expiresAt, expiresAt));
+    }
+
+    /**
+     * Marks a failed refresh of the given key, so the next access may try again while the answer is still valid.
+     *
+     * @param key the queried name and record type
+     */
+    void refreshFailed(final @NotNull String key) {
+        final var entry = entries.get(key);
+        if (entry != null) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    boolean isEnabled() {
+        return maxTtlNanos > 0 || negativeTtlNanos > 0;
+    }
+
+    class Entry {
+
+        private final @Nullable DnsAnswer answer;
+        private final @Nullable Throwable failureCause;
+        private final long refreshAt;
+        private final long expiresAt;
+        private final @NotNull AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(
+                final @Nullable DnsAnswer answer,
+                final @Nullable Throwable failureCause,
+                final long refreshAt,
+                final long expiresAt) {
+            this.answer = answer;
+            this.failureCause = failureCause;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * @return the cached answer, {@code null} if it is negative
+         */
+        @Nullable DnsAnswer getAnswer() {
+            return answer;
+        }
+
+        boolean isNegative() {
+            return answer == null;
+        }
+
+        /**
+         * @return the cause of a negative answer, {@code null} if it has no records or is not negative
+         */
+        @Nullable Throwable getFailureCause() {
+            return failureCause;
+        }
+
+        /**
+         * Checks if this answer is due for a refresh ahead of its expiry. Only the first caller after the refresh point
+         * gets {@code true}, so only one refresh query is started.
+         *
+         * @return {@code true} if the caller should refresh the answer
+         */
+        boolean tryStartRefresh() {
+            return !isNegative() && nanoTime.getAsLong() - refreshAt >= 0 && refreshing.compareAndSet(false, true);
+        }
+    }
+}
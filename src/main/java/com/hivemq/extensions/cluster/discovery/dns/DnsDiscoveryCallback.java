@@ -21,33 +21,54 @@ import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterDiscoveryI
 import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterDiscoveryOutput;
 import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
 import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryRecordType;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.MultiThreadIoEventLoopGroup;
-import io.netty.channel.nio.NioIoHandler;
-import io.netty.channel.socket.nio.NioDatagramChannel;
-import io.netty.resolver.dns.DnsNameResolverBuilder;
-import io.netty.resolver.dns.SingletonDnsServerAddressStreamProvider;
 import org.apache.commons.validator.routines.InetAddressValidator;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
 
 /**
- * Cluster discovery using DNS resolution of round-robin A records. Uses non-blocking netty API for DNS resolution,
- * reads discovery parameters as environment variables.
+ * Cluster discovery using DNS resolution of round-robin A records or SRV records. Uses non-blocking netty API for DNS
+ * resolution, reads discovery parameters as environment variables.
+ * <p>
+ * The DNS resolution runs in the background on the extension's own event loop, every reload interval. {@link #init}
+ * and {@link #reload} never wait for it, they only provide the latest completed snapshot of the cluster nodes.
+ * <p>
+ * If the resolution fails, the last successfully resolved cluster nodes are still provided (marked as stale) until they
+ * are older than the configured maximum staleness.
+ * <p>
+ * The cluster nodes of the last successful resolution are persisted, after a restart they are provided by {@link #init}
+ * until the first resolution completed.
  *
  * @author Daniel Krüger
  * @author Lukas Brand
@@ -56,24 +77,113 @@ class DnsDiscoveryCallback implements ClusterDiscoveryCallback {
 
     private static final @NotNull Logger log = LoggerFactory.getLogger(DnsDiscoveryCallback.class);
 
-    private final @NotNull DnsDiscoveryConfigExtended configuration;
+    /**
+     * Reload interval in seconds until the first background resolution completed, so HiveMQ picks it up quickly.
+     */
+    static final int PENDING_RELOAD_INTERVAL = 1;
+
+    // unresolved addresses are skipped later on, they are sorted last
+    private static final @NotNull Comparator<InetSocketAddress> ADDRESS_ORDER = Comparator.nullsLast(
+            Comparator.comparing(DnsDiscoveryCallback::addressBytes, Comparator.nullsLast(Arrays::compareUnsigned))
+                    .thenComparingInt(InetSocketAddress::getPort));
+
     private final @NotNull DnsDiscoveryMetrics metrics;
     private final @NotNull EventLoopGroup eventLoopGroup;
     private final @NotNull InetAddressValidator addressValidator;
+    private final @NotNull DnsNodeResolver nodeResolver;
+    private final @NotNull AdaptiveReloadInterval reloadInterval;
+    private final @NotNull NodeProber nodeProber;
+    private final @NotNull OwnAddressFilter ownAddressFilter = new OwnAddressFilter();
 
     private final @NotNull AtomicInteger addressesCount = new AtomicInteger(0);
-    private final @NotNull AtomicReference<List<String>> foundHostsRef = new AtomicReference<>(List.of());
+    private final @NotNull AtomicReference<List<ClusterNodeAddress>> foundAddressesRef =
+            new AtomicReference<>(List.of());
+    // incremented whenever the provided cluster nodes change
+    private final @NotNull AtomicLong membershipGeneration = new AtomicLong();
+    // latest successful resolution, null if there is none yet or it failed and must not be served stale
+    private final @NotNull AtomicReference<Snapshot> snapshotRef = new AtomicReference<>();
+    private final @NotNull AtomicBoolean started = new AtomicBoolean();
+    // the background resolution in flight, concurrent refreshes join it instead of sending their own DNS queries
+    private final @NotNull AtomicReference<CompletableFuture<Void>> refreshRef = new AtomicReference<>();
+    private final @NotNull LongSupplier nanoTime;
+    private final @Nullable NodeSnapshotFile snapshotFile;
+    // the snapshot file is written on its own thread, file I/O must not block the event loop
+    private final @NotNull ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "dns-discovery-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private @Nullable ClusterNodeAddress ownAddress;
+    private volatile @NotNull DnsDiscoveryConfigExtended configuration;
+    private volatile long lastSuccessAt;
+    private volatile boolean firstRefreshCompleted;
+    private volatile boolean firstRefreshScheduled;
+    private volatile boolean stale;
+    private volatile boolean destroyed;
+    private volatile @Nullable ClusterNodeAddress ownAddress;
+    // the next background resolution, guarded by this
+    private @Nullable ScheduledFuture<?> scheduledRefresh;
+    private volatile @NotNull List<ClusterNodeAddress> storedNodes = List.of();
+    private volatile @NotNull List<String> storedDiscoveryAddresses = List.of();
+    // the provided cluster nodes and their hash, the same list is provided again as long as they do not change
+    private volatile @NotNull List<ClusterNodeAddress> currentNodes = List.of();
+    private volatile int currentNodesFingerprint = List.of().hashCode();
 
     DnsDiscoveryCallback(
             final @NotNull DnsDiscoveryConfigExtended configuration,
             final @NotNull DnsDiscoveryMetrics metrics) {
-        this.eventLoopGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+        this(configuration, metrics, System::nanoTime);
+    }
+
+    DnsDiscoveryCallback(
+            final @NotNull DnsDiscoveryConfigExtended configuration,
+            final @NotNull DnsDiscoveryMetrics metrics,
+            final @NotNull NodeSnapshotFile snapshotFile) {
+        this(configuration, metrics, DnsTransport.detect(), snapshotFile, System::nanoTime);
+    }
+
+    DnsDiscoveryCallback(
+            final @NotNull DnsDiscoveryConfigExtended configuration,
+            final @NotNull DnsDiscoveryMetrics metrics,
+            final @NotNull LongSupplier nanoTime) {
+        this(configuration, metrics, DnsTransport.detect(), nanoTime);
+    }
+
+    DnsDiscoveryCallback(
+            final @NotNull DnsDiscoveryConfigExtended configuration,
+            final @NotNull DnsDiscoveryMetrics metrics,
+            final @NotNull DnsTransport transport,
+            final @NotNull LongSupplier nanoTime) {
+        this(configuration, metrics, transport, null, nanoTime);
+    }
+
+    DnsDiscoveryCallback(
+            final @NotNull DnsDiscoveryConfigExtended configuration,
+            final @NotNull DnsDiscoveryMetrics metrics,
+            final @NotNull DnsTransport transport,
+            final @Nullable NodeSnapshotFile snapshotFile,
+            final @NotNull LongSupplier nanoTime) {
+        log.debug("{}: Using the {} transport for DNS queries.", EXTENSION_NAME, transport);
+        this.eventLoopGroup = transport.newEventLoopGroup(1);
         this.addressValidator = InetAddressValidator.getInstance();
+        this.nodeResolver = new DnsNodeResolver(eventLoopGroup, transport, configuration, metrics);
+        this.reloadInterval = new AdaptiveReloadInterval(configuration);
+        this.nodeProber = new NodeProber(eventLoopGroup, transport, configuration, metrics, nanoTime);
         this.configuration = configuration;
         this.metrics = metrics;
+        this.nanoTime = nanoTime;
+        this.snapshotFile = snapshotFile;
+        // until the first successful resolution, the age is counted from the start
+        this.lastSuccessAt = nanoTime.getAsLong();
         metrics.registerAddressCountGauge(addressesCount::get);
+        metrics.registerSnapshotAgeGauge(() -> {
+            final var snapshot = snapshotRef.get();
+            return snapshot != null ? TimeUnit.NANOSECONDS.toSeconds(snapshot.getAge()) : 0L;
+        });
+        metrics.registerSnapshotStaleGauge(() -> stale ? 1 : 0);
+        metrics.registerMembershipGenerationGauge(membershipGeneration::get);
+        metrics.registerLastSuccessAgeGauge(
+                () -> TimeUnit.NANOSECONDS.toSeconds(nanoTime.getAsLong() - lastSuccessAt));
     }
 
     @Override
@@ -81,98 +191,500 @@ class DnsDiscoveryCallback implements ClusterDiscoveryCallback {
             final @NotNull ClusterDiscoveryInput clusterDiscoveryInput,
             final @NotNull ClusterDiscoveryOutput clusterDiscoveryOutput) {
         ownAddress = clusterDiscoveryInput.getOwnAddress();
-        clusterDiscoveryOutput.setReloadInterval(configuration.getReloadInterval());
-        loadClusterNodeAddresses(clusterDiscoveryOutput);
+        if (started.compareAndSet(false, true)) {
+            loadStoredNodes();
+            // answers that are available right away (IP literals, cached answers) are already provided by init
+            refresh();
+        }
+        provideSnapshot(clusterDiscoveryOutput);
     }
 
     @Override
     public void reload(
             final @NotNull ClusterDiscoveryInput clusterDiscoveryInput,
             final @NotNull ClusterDiscoveryOutput clusterDiscoveryOutput) {
-        loadClusterNodeAddresses(clusterDiscoveryOutput);
-        clusterDiscoveryOutput.setReloadInterval(configuration.getReloadInterval());
+        provideSnapshot(clusterDiscoveryOutput);
     }
 
     @Override
     public void destroy(final @NotNull ClusterDiscoveryInput clusterDiscoveryInput) {
+        destroyed = true;
+        nodeResolver.close();
         eventLoopGroup.shutdownGracefully();
+        // a pending write of the snapshot file is still completed
+        snapshotExecutor.shutdown();
         metrics.stop();
     }
 
-    private void loadClusterNodeAddresses(final @NotNull ClusterDiscoveryOutput clusterDiscoveryOutput) {
+    @NotNull DnsNodeResolver getNodeResolver() {
+        return nodeResolver;
+    }
+
+    /**
+     * Applies a changed configuration as a whole. The next background resolution uses it, the DNS resolver is only
+     * rebuilt if settings that are relevant for it changed. If the reload interval settings changed, the next
+     * background resolution is scheduled again with them. The metrics of removed discovery addresses are removed too.
+     *
+     * @param configuration the new configuration
+     */
+    void updateConfiguration(final @NotNull DnsDiscoveryConfigExtended configuration) {
+        final var previous = this.configuration;
+        this.configuration = configuration;
+        nodeResolver.updateConfiguration(configuration);
+        reloadInterval.updateConfiguration(configuration);
+        nodeProber.updateConfiguration(configuration);
+        if (!previous.getDiscoveryAddresses().equals(configuration.getDiscoveryAddresses())) {
+            metrics.retainDiscoveryAddresses(configuration.getDiscoveryAddresses());
+        }
+        if (previous.getReloadInterval() != configuration.getReloadInterval() ||
+                previous.getReloadIntervalMin() != configuration.getReloadIntervalMin() ||
+                previous.getReloadIntervalMax() != configuration.getReloadIntervalMax() ||
+                previous.getReloadJitter() != configuration.getReloadJitter()) {
+            log.debug("{}: Reload interval settings changed, rescheduling the next DNS resolution.", EXTENSION_NAME);
+            rescheduleRefresh();
+        }
+    }
+
+    /**
+     * Provides the cluster nodes of the last run until the first resolution completed, a restarted node can rejoin the
+     * cluster right away instead of waiting for DNS. They are ignored if they were resolved from other discovery
+     * addresses or are older than the maximum staleness.
+     */
+    private void loadStoredNodes() {
+        if (snapshotFile == null) {
+            return;
+        }
+        final var stored = snapshotFile.load();
+        if (stored == null || stored.getNodes().isEmpty()) {
+            return;
+        }
+        if (!stored.getDiscoveryAddresses().equals(configuration.getDiscoveryAddresses())) {
+            log.info("{}: Ignoring the cluster nodes of the last run, they were resolved from other discovery " +
+                    "addresses ({}).", EXTENSION_NAME, String.join(",", stored.getDiscoveryAddresses()));
+            return;
+        }
+        final var maxStaleness = configuration.getMaxStaleness();
+        if (maxStaleness > 0 && stored.getAge() > TimeUnit.SECONDS.toMillis(maxStaleness)) {
+            log.info("{}: Ignoring the cluster nodes of the last run, they were resolved {}s ago.",
+                    EXTENSION_NAME,
+                    TimeUnit.MILLISECONDS.toSeconds(stored.getAge()));
+            return;
+        }
+        final var nodes = stored.getNodes();
+        storedNodes = nodes;
+        storedDiscoveryAddresses = stored.getDiscoveryAddresses();
+        // the age of the stored cluster nodes counts from the time they were resolved, not from the start
+        final var resolvedAt = nanoTime.getAsLong() - TimeUnit.MILLISECONDS.toNanos(stored.getAge());
+        if (snapshotRef.compareAndSet(null, new Snapshot(toCurrentNodes(nodes), resolvedAt))) {
+            addressesCount.set(nodes.size());
+            log.info("{}: Providing {} cluster nodes of the last run until the DNS resolution completed.",
+                    EXTENSION_NAME,
+                    nodes.size());
+        }
+    }
+
+    /**
+     * Returns the cached list of the provided cluster nodes if they did not change, so HiveMQ gets the same immutable
+     * list on steady-state reloads. Otherwise the cluster nodes are cached as a new membership generation.
+     */
+    private @NotNull List<ClusterNodeAddress> toCurrentNodes(final @NotNull List<ClusterNodeAddress> nodes) {
+        final var fingerprint = nodes.hashCode();
+        final var currentNodes = this.currentNodes;
+        if (fingerprint == currentNodesFingerprint && nodes.equals(currentNodes)) {
+            return currentNodes;
+        }
+        final var newNodes = List.copyOf(nodes);
+        this.currentNodes = newNodes;
+        currentNodesFingerprint = fingerprint;
+        membershipGeneration.incrementAndGet();
+        return newNodes;
+    }
+
+    /**
+     * Stores the cluster nodes whenever they or the discovery addresses change. With a maximum staleness, unchanged
+     * cluster nodes are marked as confirmed instead, so the time of the file tells how old they are after a restart.
+     *
+     * @return a future that completes when the snapshot file is written
+     */
+    private @NotNull CompletableFuture<Void> storeNodes(final @NotNull List<ClusterNodeAddress> clusterNodeAddresses) {
+        final var snapshotFile = this.snapshotFile;
+        if (snapshotFile == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var discoveryAddresses = configuration.getDiscoveryAddresses();
+        final var changed = !clusterNodeAddresses.equals(storedNodes) ||
+                !discoveryAddresses.equals(storedDiscoveryAddresses);
+        if (!changed && configuration.getMaxStaleness() <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        storedNodes = clusterNodeAddresses;
+        storedDiscoveryAddresses = discoveryAddresses;
+        try {
+            return CompletableFuture.runAsync(changed ?
+                    () -> snapshotFile.store(clusterNodeAddresses, discoveryAddresses) :
+                    snapshotFile::touch, snapshotExecutor);
+        } catch (final RejectedExecutionException e) {
+            // the extension is being stopped
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void provideSnapshot(final @NotNull ClusterDiscoveryOutput clusterDiscoveryOutput) {
+        final var snapshot = snapshotRef.get();
+        if (snapshot != null && (!stale || !snapshot.isExpired())) {
+            clusterDiscoveryOutput.provideCurrentNodes(snapshot.getNodes());
+        }
+        clusterDiscoveryOutput.setReloadInterval(firstRefreshCompleted ?
+                (int) Math.max(1, Math.round(reloadInterval.nextDelayMillis() / 1000d)) :
+                PENDING_RELOAD_INTERVAL);
+    }
+
+    /**
+     * Starts a background resolution of the cluster nodes, the next one is scheduled once it completed. If a resolution
+     * is already in flight, it is joined instead.
+     *
+     * @return a future that completes when the resolution, the snapshot update and the snapshot file write are done
+     */
+    @NotNull CompletableFuture<Void> refresh() {
+        if (destroyed) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final var refresh = new CompletableFuture<Void>();
+        while (true) {
+            final var inFlightRefresh = refreshRef.get();
+            if (inFlightRefresh != null && !inFlightRefresh.isDone()) {
+                metrics.getQueryCoalescedCount().inc();
+                return inFlightRefresh;
+            }
+            if (refreshRef.compareAndSet(inFlightRefresh, refresh)) {
+                break;
+            }
+        }
+        final var startTime = nanoTime.getAsLong();
+        // a synchronous failure must fail the refresh as well, otherwise no further refresh would be scheduled
+        CompletableFuture<@Nullable List<ClusterNodeAddress>> resolution;
         try {
-            final var clusterNodeAddresses = loadOtherNodes();
-            if (clusterNodeAddresses != null) {
-                clusterDiscoveryOutput.provideCurrentNodes(clusterNodeAddresses);
-                metrics.getQuerySuccessCount().inc();
+            resolution = loadOtherNodes().thenCompose(clusterNodeAddresses -> clusterNodeAddresses != null ?
+                    nodeProber.probe(clusterNodeAddresses) :
+                    CompletableFuture.completedFuture(null));
+        } catch (final RuntimeException e) {
+            log.warn("{}: Could not start the DNS resolution of the cluster nodes.", EXTENSION_NAME, e);
+            resolution = CompletableFuture.failedFuture(e);
+        }
+        resolution.handle((clusterNodeAddresses, throwable) -> {
+            var stored = CompletableFuture.<Void>completedFuture(null);
+            try {
+                if (throwable != null) {
+                    reloadInterval.onFailure();
+                    keepOrDropSnapshot();
+                    metrics.getReloadTime().update(nanoTime.getAsLong() - startTime, TimeUnit.NANOSECONDS);
+                } else if (clusterNodeAddresses != null) {
+                    final var currentNodes = toCurrentNodes(clusterNodeAddresses);
+                    final var delta = updateMembership(currentNodes);
+                    final var now = nanoTime.getAsLong();
+                    snapshotRef.set(new Snapshot(currentNodes, now));
+                    lastSuccessAt = now;
+                    reloadInterval.onSuccess(!delta.isEmpty());
+                    stale = false;
+                    stored = storeNodes(currentNodes);
+                    metrics.getReloadTime().update(now - startTime, TimeUnit.NANOSECONDS);
+                }
+            } finally {
+                firstRefreshCompleted = true;
+            }
+            return stored;
+        }).thenCompose(stored -> stored).whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                log.warn("{}: Could not update the cluster nodes.", EXTENSION_NAME, throwable);
+                refresh.completeExceptionally(throwable);
+            } else {
+                refresh.complete(null);
             }
-        } catch (final TimeoutException | InterruptedException e) {
-            log.error("{}: Timeout while getting other node addresses.", EXTENSION_NAME);
-            metrics.getQueryFailedCount().inc();
-            addressesCount.set(0);
+            // only once this refresh is done, otherwise the next one would join it instead of running
+            scheduleRefresh();
+        });
+        return refresh;
+    }
+
+    private void keepOrDropSnapshot() {
+        final var snapshot = snapshotRef.get();
+        if (snapshot != null && !snapshot.isExpired()) {
+            stale = true;
+            log.warn("{}: Providing the last known cluster nodes resolved {}s ago.",
+                    EXTENSION_NAME,
+                    TimeUnit.NANOSECONDS.toSeconds(snapshot.getAge()));
+            return;
         }
+        snapshotRef.set(null);
+        stale = false;
+        addressesCount.set(0);
     }
 
-    private @Nullable List<ClusterNodeAddress> loadOtherNodes() throws TimeoutException, InterruptedException {
+    /**
+     * Schedules the next background resolution, replacing the one that is scheduled already.
+     */
+    private synchronized void scheduleRefresh() {
+        if (destroyed) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        // the first delay is a phase offset, so cluster nodes that started together do not query in lockstep
+        final var ownAddress = this.ownAddress;
+        final var delayMillis = !firstRefreshScheduled && ownAddress != null ?
+                reloadInterval.firstDelayMillis(ownAddress) :
+                reloadInterval.nextDelayMillis();
+        firstRefreshScheduled = true;
+        try {
+            scheduledRefresh = eventLoopGroup.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // the extension is being stopped
+        }
+    }
+
+    /**
+     * Schedules the next background resolution again with the current reload interval, unless none is scheduled yet
+     * or it is already running. A running resolution schedules the next one itself once it completed.
+     */
+    private synchronized void rescheduleRefresh() {
+        if (scheduledRefresh != null && scheduledRefresh.cancel(false)) {
+            scheduleRefresh();
+        }
+    }
+
+    /**
+     * Resolves, validates and maps the cluster nodes of all discovery addresses, without the addresses of this node.
+     *
+     * @return a future with the cluster nodes, {@code null} if nothing can be resolved (yet)
+     */
+    @NotNull CompletableFuture<@Nullable List<ClusterNodeAddress>> loadOtherNodes() {
+        final var ownAddress = this.ownAddress;
         if (ownAddress == null) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
 
-        final var discoveryAddress = configuration.getDiscoveryAddress().orElse("");
-        if (discoveryAddress.isEmpty()) {
+        final var discoveryAddresses = configuration.getDiscoveryAddresses();
+        if (discoveryAddresses.isEmpty()) {
             log.warn("{}: Discovery address not set, skipping DNS query.", EXTENSION_NAME);
-            return null;
-        }
-        final var discoveryTimeout = configuration.getResolutionTimeout();
-
-        // initialize netty DNS resolver
-        final var dnsNameResolverBuilder =
-                new DnsNameResolverBuilder(eventLoopGroup.next()).datagramChannelType(NioDatagramChannel.class)
-                        .optResourceEnabled(false);
-
-        // use custom DNS server address if necessary
-        final var dnsServerAddress = configuration.getDnsServerAddress();
-        dnsServerAddress.ifPresent(inetSocketAddress -> dnsNameResolverBuilder
-                .nameServerProvider(new SingletonDnsServerAddressStreamProvider(inetSocketAddress)));
-
-        try (final var resolver = dnsNameResolverBuilder.build()) {
-            final var addresses = resolver.resolveAll(discoveryAddress);
-            final var clusterNodeAddresses = addresses.get(discoveryTimeout, TimeUnit.SECONDS)
-                    .stream()
-                    // skip any possibly unresolved elements
-                    .filter(Objects::nonNull)
-                    // check if the discoveryAddress address we got from the DNS is a valid IP address
-                    .filter((address) -> addressValidator.isValid(address.getHostAddress()))
-                    .map((address) -> new ClusterNodeAddress(address.getHostAddress(), ownAddress.getPort()))
-                    .collect(Collectors.toList());
-
-            final var foundHosts = new ArrayList<String>();
-            final var lastFoundHosts = foundHostsRef.get();
-            clusterNodeAddresses.forEach((address) -> {
-                final String host = address.getHost();
-                foundHosts.add(host);
-                if (!lastFoundHosts.contains(host)) {
-                    log.debug("{}: Discovered new address '{}'.", EXTENSION_NAME, host);
-                }
-            });
-            lastFoundHosts.forEach(host -> {
-                if (!foundHosts.contains(host)) {
-                    log.debug("{}: Discovered address '{}' is gone.", EXTENSION_NAME, host);
-                }
-            });
-            foundHostsRef.set(foundHosts);
-            addressesCount.set(clusterNodeAddresses.size());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // all names and their zones are resolved concurrently, so the resolution timeout is one shared deadline
+        final var resolutions = new LinkedHashMap<String, CompletableFuture<List<InetSocketAddress>>>();
+        final var zoneResolutions = new ArrayList<CompletableFuture<Map<String, String>>>();
+        final var zone = configuration.getZone();
+        for (final var discoveryAddress : discoveryAddresses) {
+            resolutions.put(discoveryAddress, resolve(discoveryAddress, ownAddress.getPort()));
+            if (zone != null) {
+                zoneResolutions.add(resolveZones(discoveryAddress));
+            }
+        }
+        final var allResolutions = new ArrayList<CompletableFuture<?>>(resolutions.values());
+        allResolutions.addAll(zoneResolutions);
+        return CompletableFuture.allOf(allResolutions.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, throwable) -> processAddresses(resolutions, zone, zoneResolutions, ownAddress))
+                .whenComplete((clusterNodeAddresses, throwable) -> {
+                    if (throwable == null) {
+                        metrics.getQuerySuccessCount().inc();
+                    } else {
+                        metrics.getQueryFailedCount().inc();
+                    }
+                });
+    }
+
+    private @NotNull CompletableFuture<List<InetSocketAddress>> resolve(
+            final @NotNull String discoveryAddress,
+            final int port) {
+        return nodeResolver.resolve(discoveryAddress, port)
+                .orTimeout(configuration.getResolutionTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((addresses, throwable) -> {
+                    if (throwable == null) {
+                        // an answer without records is a failure only, so success and failure add up per name
+                        if (addresses.isEmpty()) {
+                            metrics.getQueryFailedCount(DnsFailureType.EMPTY).inc();
+                            metrics.getQueryFailedCount(discoveryAddress).inc();
+                        } else {
+                            metrics.getQuerySuccessCount(discoveryAddress).inc();
+                        }
+                        return;
+                    }
+                    final var cause = Objects.requireNonNull(DnsNodeResolver.unwrap(throwable));
+                    final var failureType = DnsFailureType.of(cause);
+                    metrics.getQueryFailedCount(failureType).inc();
+                    if (failureType == DnsFailureType.TIMEOUT) {
+                        log.error("{}: Timeout while getting other node addresses from '{}'.",
+                                EXTENSION_NAME,
+                                discoveryAddress);
+                    } else {
+                        log.error("{}: Failed to resolve DNS record for address '{}' (reason: {}).",
+                                EXTENSION_NAME,
+                                discoveryAddress,
+                                cause.toString());
+                    }
+                    metrics.getQueryFailedCount(discoveryAddress).inc();
+                });
+    }
+
+    /**
+     * Resolves the zones of the cluster nodes of the given discovery address. A failure or timeout only disables the
+     * zone-aware ordering of its cluster nodes.
+     *
+     * @return a future with the zones by IP address, empty if they cannot be resolved
+     */
+    private @NotNull CompletableFuture<Map<String, String>> resolveZones(final @NotNull String discoveryAddress) {
+        return nodeResolver.resolveZones(discoveryAddress)
+                .orTimeout(configuration.getResolutionTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .handle((zones, throwable) -> {
+                    if (zones != null) {
+                        return zones;
+                    }
+                    log.debug("{}: Failed to resolve the zones of address '{}' (reason: {}).",
+                            EXTENSION_NAME,
+                            discoveryAddress,
+                            Objects.toString(DnsNodeResolver.unwrap(throwable)));
+                    return Map.of();
+                });
+    }
+
+    private @NotNull List<ClusterNodeAddress> processAddresses(
+            final @NotNull Map<String, CompletableFuture<List<InetSocketAddress>>> resolutions,
+            final @Nullable String zone,
+            final @NotNull List<CompletableFuture<Map<String, String>>> zoneResolutions,
+            final @NotNull ClusterNodeAddress ownAddress) {
+        final var startTime = nanoTime.getAsLong();
+        try {
+            final var addresses = mergeAddresses(resolutions);
+            final var otherAddresses = ownAddressFilter.filter(addresses, ownAddress);
+            if (otherAddresses.size() < addresses.size()) {
+                metrics.getMembershipSelfExcludedCount().inc(addresses.size() - otherAddresses.size());
+            }
+            final var clusterNodeAddresses = toClusterNodeAddresses(sortAddresses(otherAddresses));
+            if (zone == null) {
+                return clusterNodeAddresses;
+            }
+            // the zone resolutions never fail, they are done together with the address resolutions
+            final var zones = zoneResolutions.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            return orderByZone(clusterNodeAddresses, zone, zones);
+        } finally {
+            metrics.getProcessingTime().update(nanoTime.getAsLong() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Merges the addresses of all names that could be resolved, in the order of the names. Fails only if no name could
+     * be resolved.
+     */
+    private static @NotNull List<InetSocketAddress> mergeAddresses(
+            final @NotNull Map<String, CompletableFuture<List<InetSocketAddress>>> resolutions) {
+        final var addresses = new LinkedHashSet<InetSocketAddress>();
+        Throwable failure = null;
+        var resolved = false;
+        for (final var resolution : resolutions.values()) {
+            try {
+                addresses.addAll(resolution.join());
+                resolved = true;
+            } catch (final CompletionException | CancellationException e) {
+                failure = DnsNodeResolver.unwrap(e);
+            }
+        }
+        if (!resolved) {
+            throw new CompletionException(failure);
+        }
+        return List.copyOf(addresses);
+    }
+
+    /**
+     * Sorts the addresses of A/AAAA records, so the round-robin rotation of the DNS server does not change the order of
+     * the cluster nodes on every reload. The order of SRV records is kept, it follows their priority and weight.
+     */
+    private @NotNull List<InetSocketAddress> sortAddresses(final @NotNull List<InetSocketAddress> addresses) {
+        if (configuration.getRecordType() == DnsDiscoveryRecordType.SRV || addresses.size() < 2) {
+            return addresses;
+        }
+        final var sortedAddresses = new ArrayList<>(addresses);
+        sortedAddresses.sort(ADDRESS_ORDER);
+        return sortedAddresses;
+    }
+
+    private static byte @Nullable [] addressBytes(final @NotNull InetSocketAddress address) {
+        return address.getAddress() != null ? address.getAddress().getAddress() : null;
+    }
+
+    private @NotNull List<ClusterNodeAddress> toClusterNodeAddresses(final @NotNull List<InetSocketAddress> addresses) {
+        return addresses.stream()
+                // skip any possibly unresolved elements
+                .filter(Objects::nonNull)
+                // check if the discoveryAddress address we got from the DNS is a valid IP address
+                .filter((address) -> addressValidator.isValid(address.getAddress().getHostAddress()))
+                .map((address) -> new ClusterNodeAddress(address.getAddress().getHostAddress(), address.getPort()))
+                .distinct()
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Moves the cluster nodes of the given zone to the front, keeping the order otherwise.
+     */
+    static @NotNull List<ClusterNodeAddress> orderByZone(
+            final @NotNull List<ClusterNodeAddress> clusterNodeAddresses,
+            final @NotNull String zone,
+            final @NotNull Collection<Map<String, String>> knownZones) {
+        final var zones = new HashMap<String, String>();
+        for (final var discoveryAddressZones : knownZones) {
+            zones.putAll(discoveryAddressZones);
+        }
+        if (zones.isEmpty()) {
             return clusterNodeAddresses;
-        } catch (final ExecutionException e) {
-            final var rootCause = e.getCause() != null ? e.getCause() : e;
-            log.error("{}: Failed to resolve DNS record for address '{}' (reason: {}).",
-                    EXTENSION_NAME,
-                    discoveryAddress,
-                    rootCause.toString());
-            metrics.getQueryFailedCount().inc();
-            addressesCount.set(0);
         }
-        return null;
+        final var sameZone = new ArrayList<ClusterNodeAddress>(clusterNodeAddresses.size());
+        final var otherZones = new ArrayList<ClusterNodeAddress>();
+        for (final var clusterNodeAddress : clusterNodeAddresses) {
+            if (zone.equals(zones.get(clusterNodeAddress.getHost()))) {
+                sameZone.add(clusterNodeAddress);
+            } else {
+                otherZones.add(clusterNodeAddress);
+            }
+        }
+        log.debug("{}: Providing {} cluster nodes of zone '{}' first.", EXTENSION_NAME, sameZone.size(), zone);
+        sameZone.addAll(otherZones);
+        return sameZone;
+    }
+
+    @NotNull MembershipDelta updateMembership(final @NotNull List<ClusterNodeAddress> clusterNodeAddresses) {
+        final var delta = MembershipDelta.of(foundAddressesRef.getAndSet(clusterNodeAddresses), clusterNodeAddresses);
+        if (log.isDebugEnabled()) {
+            delta.getAdded()
+                    .forEach(address -> log.debug("{}: Discovered new address '{}'.", EXTENSION_NAME, address));
+            delta.getRemoved()
+                    .forEach(address -> log.debug("{}: Discovered address '{}' is gone.", EXTENSION_NAME, address));
+        }
+        metrics.getMembershipAddedCount().inc(delta.getAdded().size());
+        metrics.getMembershipRemovedCount().inc(delta.getRemoved().size());
+        addressesCount.set(clusterNodeAddresses.size());
+        return delta;
+    }
+
+    private class Snapshot {
+
+        private final @NotNull List<ClusterNodeAddress> nodes;
+        private final long resolvedAt;
+
+        private Snapshot(final @NotNull List<ClusterNodeAddress> nodes, final long resolvedAt) {
+            this.nodes = nodes;
+            this.resolvedAt = resolvedAt;
+        }
+
+        @NotNull List<ClusterNodeAddress> getNodes() {
+            return nodes;
+        }
+
+        long getAge() {
+            return nanoTime.getAsLong() - resolvedAt;
+        }
+
+        boolean isExpired() {
+            final var maxStaleness = configuration.getMaxStaleness();
+            return maxStaleness <= 0 || getAge() > TimeUnit.SECONDS.toNanos(maxStaleness);
+        }
     }
 }
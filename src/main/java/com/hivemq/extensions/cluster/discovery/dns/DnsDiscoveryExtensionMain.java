@@ -24,9 +24,17 @@ import com.hivemq.extension.sdk.api.parameter.ExtensionStopOutput;
 import com.hivemq.extension.sdk.api.services.Services;
 import com.hivemq.extensions.cluster.discovery.dns.configuration.ConfigurationException;
 import com.hivemq.extensions.cluster.discovery.dns.configuration.ConfigurationFileReader;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.ConfigurationFileWatcher;
 import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
 
 /**
  * This is the main class of the DNS discovery extension, which is instantiated during the HiveMQ start up process.
@@ -36,12 +44,16 @@ import org.jetbrains.annotations.Nullable;
 @SuppressWarnings("unused")
 public class DnsDiscoveryExtensionMain implements ExtensionMain {
 
+    private static final @NotNull Logger log = LoggerFactory.getLogger(DnsDiscoveryExtensionMain.class);
+
     private @Nullable DnsDiscoveryCallback dnsDiscoveryCallback;
+    private @Nullable ConfigurationFileWatcher configurationFileWatcher;
 
     @Override
     public void extensionStart(
             final @NotNull ExtensionStartInput extensionStartInput,
             final @NotNull ExtensionStartOutput extensionStartOutput) {
+        final var startTime = System.nanoTime();
         try {
             final var extensionHomeFolder = extensionStartInput.getExtensionInformation().getExtensionHomeFolder();
             final var configurationFileReader = new ConfigurationFileReader(extensionHomeFolder);
@@ -49,9 +61,27 @@ public class DnsDiscoveryExtensionMain implements ExtensionMain {
             final var extendedConfig = DnsDiscoveryConfigExtended.createInstance(dnsFileConfig);
             final var metrics = new DnsDiscoveryMetrics(Services.metricRegistry());
 
-            dnsDiscoveryCallback = new DnsDiscoveryCallback(extendedConfig, metrics);
+            dnsDiscoveryCallback = new DnsDiscoveryCallback(extendedConfig,
+                    metrics,
+                    new NodeSnapshotFile(extensionHomeFolder.toPath().resolve(NodeSnapshotFile.SNAPSHOT_PATH)));
 
             Services.clusterService().addDiscoveryCallback(dnsDiscoveryCallback);
+
+            // changes of the configuration file are applied without a restart
+            configurationFileWatcher =
+                    new ConfigurationFileWatcher(configurationFileReader, dnsDiscoveryCallback::updateConfiguration);
+            try {
+                configurationFileWatcher.start();
+            } catch (final IOException e) {
+                log.warn("{}: Could not watch the configuration file, changes require a restart: {}",
+                        EXTENSION_NAME,
+                        e.getMessage());
+                configurationFileWatcher = null;
+            }
+            // extension start is on the critical path of the broker start
+            log.debug("{}: Started in {} ms.",
+                    EXTENSION_NAME,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
         } catch (final ConfigurationException e) {
             extensionStartOutput.preventExtensionStartup(
                     "Error while reading the configuration" + ((e.getMessage() != null) ? ": " + e.getMessage() : ""));
@@ -65,6 +95,9 @@ public class DnsDiscoveryExtensionMain implements ExtensionMain {
     public void extensionStop(
             final @NotNull ExtensionStopInput extensionStopInput,
             final @NotNull ExtensionStopOutput extensionStopOutput) {
+        if (configurationFileWatcher != null) {
+            configurationFileWatcher.close();
+        }
         if (dnsDiscoveryCallback != null) {
             Services.clusterService().removeDiscoveryCallback(dnsDiscoveryCallback);
         }
@@ -18,9 +18,17 @@ package com.hivemq.extensions.cluster.discovery.dns;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @author Lukas Brand
  */
@@ -32,6 +40,18 @@ class DnsDiscoveryMetrics {
     private final @NotNull MetricRegistry metricRegistry;
     private final @NotNull Counter querySuccessCount;
     private final @NotNull Counter queryFailedCount;
+    private final @NotNull Counter membershipAddedCount;
+    private final @NotNull Counter membershipRemovedCount;
+    private final @NotNull Timer reloadTime;
+    private final @NotNull Timer queryTime;
+    private final @NotNull Timer processingTime;
+    private final @NotNull Histogram answerSize;
+    private final @NotNull Counter queryTruncatedCount;
+    private final @NotNull Counter queryCoalescedCount;
+    private final @NotNull Counter probeUnreachableCount;
+    private final @NotNull Counter membershipSelfExcludedCount;
+    private final @NotNull Map<DnsFailureType, Counter> queryFailedCounts = new EnumMap<>(DnsFailureType.class);
+    private final @NotNull Set<String> discoveryAddresses = ConcurrentHashMap.newKeySet();
 
     DnsDiscoveryMetrics(final @NotNull MetricRegistry metricRegistry) {
         this.metricRegistry = metricRegistry;
@@ -39,6 +59,35 @@ class DnsDiscoveryMetrics {
                 .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.success.count"));
         this.queryFailedCount = metricRegistry
                 .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.failed.count"));
+        this.membershipAddedCount = metricRegistry
+                .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.added.count"));
+        this.membershipRemovedCount = metricRegistry
+                .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.removed.count"));
+        this.reloadTime =
+                metricRegistry.timer(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "reload.time"));
+        this.queryTime =
+                metricRegistry.timer(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.time"));
+        this.processingTime =
+                metricRegistry.timer(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "processing.time"));
+        this.answerSize = metricRegistry
+                .histogram(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.answer-size"));
+        this.queryTruncatedCount = metricRegistry
+                .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.truncated.count"));
+        this.queryCoalescedCount = metricRegistry
+                .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.coalesced.count"));
+        this.probeUnreachableCount = metricRegistry
+                .counter(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "probe.unreachable.count"));
+        this.membershipSelfExcludedCount = metricRegistry.counter(MetricRegistry.name(HIVEMQ_PREFIX,
+                DNS_DISCOVERY_EXTENSION,
+                "membership.self-excluded.count"));
+        for (final var failureType : DnsFailureType.values()) {
+            queryFailedCounts.put(failureType,
+                    metricRegistry.counter(MetricRegistry.name(HIVEMQ_PREFIX,
+                            DNS_DISCOVERY_EXTENSION,
+                            "query.failed",
+                            failureType.getMetricName(),
+                            "count")));
+        }
     }
 
     @NotNull Counter getQuerySuccessCount() {
@@ -49,13 +98,154 @@ class DnsDiscoveryMetrics {
         return queryFailedCount;
     }
 
+    @NotNull Counter getMembershipAddedCount() {
+        return membershipAddedCount;
+    }
+
+    @NotNull Counter getMembershipRemovedCount() {
+        return membershipRemovedCount;
+    }
+
+    /**
+     * @return the timer of a whole reload, from the DNS queries to the updated cluster nodes
+     */
+    @NotNull Timer getReloadTime() {
+        return reloadTime;
+    }
+
+    /**
+     * @return the timer of the DNS round trip of a single query, including retries and hedged queries
+     */
+    @NotNull Timer getQueryTime() {
+        return queryTime;
+    }
+
+    /**
+     * @return the timer of merging, validating and mapping the resolved addresses to cluster nodes
+     */
+    @NotNull Timer getProcessingTime() {
+        return processingTime;
+    }
+
+    /**
+     * @return the histogram of the number of records per DNS answer
+     */
+    @NotNull Histogram getAnswerSize() {
+        return answerSize;
+    }
+
+    /**
+     * @return the counter of queries whose UDP answer was truncated and that were retried over TCP
+     */
+    @NotNull Counter getQueryTruncatedCount() {
+        return queryTruncatedCount;
+    }
+
+    /**
+     * @return the counter of resolutions that joined a resolution of the same name that was already in flight
+     */
+    @NotNull Counter getQueryCoalescedCount() {
+        return queryCoalescedCount;
+    }
+
+    /**
+     * @return the counter of reachability probes of discovered cluster nodes that could not connect
+     */
+    @NotNull Counter getProbeUnreachableCount() {
+        return probeUnreachableCount;
+    }
+
+    /**
+     * @return the counter of discovered addresses that were removed because they belong to this cluster node
+     */
+    @NotNull Counter getMembershipSelfExcludedCount() {
+        return membershipSelfExcludedCount;
+    }
+
+    /**
+     * @param failureType the type of the failure
+     * @return the counter of failed resolutions of a discovery address with the given type of failure
+     */
+    @NotNull Counter getQueryFailedCount(final @NotNull DnsFailureType failureType) {
+        return queryFailedCounts.get(failureType);
+    }
+
+    /**
+     * @param discoveryAddress the discovery address (name) that was queried
+     * @return the counter of successful queries of the given discovery address
+     */
+    @NotNull Counter getQuerySuccessCount(final @NotNull String discoveryAddress) {
+        discoveryAddresses.add(discoveryAddress);
+        return metricRegistry.counter(querySuccessCountName(discoveryAddress));
+    }
+
+    /**
+     * @param discoveryAddress the discovery address (name) that was queried
+     * @return the counter of failed queries of the given discovery address
+     */
+    @NotNull Counter getQueryFailedCount(final @NotNull String discoveryAddress) {
+        discoveryAddresses.add(discoveryAddress);
+        return metricRegistry.counter(queryFailedCountName(discoveryAddress));
+    }
+
+    /**
+     * Removes the counters of discovery addresses that are not configured anymore.
+     *
+     * @param configuredDiscoveryAddresses the currently configured discovery addresses
+     */
+    void retainDiscoveryAddresses(final @NotNull Collection<String> configuredDiscoveryAddresses) {
+        for (final var discoveryAddress : discoveryAddresses) {
+            if (!configuredDiscoveryAddresses.contains(discoveryAddress)) {
+                removeDiscoveryAddress(discoveryAddress);
+            }
+        }
+    }
+
+    private void removeDiscoveryAddress(final @NotNull String discoveryAddress) {
+        discoveryAddresses.remove(discoveryAddress);
+        metricRegistry.remove(querySuccessCountName(discoveryAddress));
+        metricRegistry.remove(queryFailedCountName(discoveryAddress));
+    }
+
+    private static @NotNull String querySuccessCountName(final @NotNull String discoveryAddress) {
+        return MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query", discoveryAddress, "success.count");
+    }
+
+    private static @NotNull String queryFailedCountName(final @NotNull String discoveryAddress) {
+        return MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query", discoveryAddress, "failed.count");
+    }
+
     void registerAddressCountGauge(final @NotNull Gauge<Integer> supplier) {
         metricRegistry.gauge(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "resolved-addresses"),
                 () -> supplier);
     }
 
+    void registerSnapshotAgeGauge(final @NotNull Gauge<Long> supplier) {
+        metricRegistry.gauge(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "snapshot.age-seconds"),
+                () -> supplier);
+    }
+
+    void registerLastSuccessAgeGauge(final @NotNull Gauge<Long> supplier) {
+        metricRegistry.gauge(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "last-success.age-seconds"),
+                () -> supplier);
+    }
+
+    void registerSnapshotStaleGauge(final @NotNull Gauge<Integer> supplier) {
+        metricRegistry.gauge(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "snapshot.stale"),
+                () -> supplier);
+    }
+
+    void registerMembershipGenerationGauge(final @NotNull Gauge<Long> supplier) {
+        metricRegistry.gauge(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.generation"),
+                () -> supplier);
+    }
+
     void stop() {
         final var metricPrefix = MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION);
         metricRegistry.removeMatching((name, metric) -> name.startsWith(metricPrefix) && metric instanceof Gauge);
+        // a restarted extension may use other discovery addresses
+        for (final var discoveryAddress : discoveryAddresses) {
+            removeDiscoveryAddress(discoveryAddress);
+        }
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.resolver.dns.DnsNameResolverTimeoutException;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Classification of failed resolutions of a discovery address.
+ */
+enum DnsFailureType {
+
+    /**
+     * The DNS server did not answer in time, or the resolution timeout was reached.
+     */
+    TIMEOUT("timeout"),
+    /**
+     * The name does not exist.
+     */
+    NXDOMAIN("nxdomain"),
+    /**
+     * The DNS server answered with SERVFAIL, REFUSED or another error response code.
+     */
+    SERVER_ERROR("server-error"),
+    /**
+     * The query could not be sent or the answer could not be received.
+     */
+    NETWORK("network"),
+    /**
+     * The name exists but has no (usable) records.
+     */
+    EMPTY("empty");
+
+    private final @NotNull String metricName;
+
+    DnsFailureType(final @NotNull String metricName) {
+        this.metricName = metricName;
+    }
+
+    @NotNull String getMetricName() {
+        return metricName;
+    }
+
+    static @NotNull DnsFailureType of(final @NotNull Throwable throwable) {
+        final var failure = DnsNodeResolver.unwrap(throwable);
+        if (failure instanceof TimeoutException || failure instanceof DnsNameResolverTimeoutException) {
+            return TIMEOUT;
+        }
+        if (!(failure instanceof UnknownHostException)) {
+            return NETWORK;
+        }
+        final var cause = failure.getCause();
+        if (cause == null) {
+            return EMPTY;
+        }
+        if (cause instanceof DnsNameResolverTimeoutException) {
+            return TIMEOUT;
+        }
+        final var responseCode = DnsNodeResolver.responseCode(failure);
+        if (responseCode == null) {
+            return NETWORK;
+        }
+        return responseCode.equals(DnsResponseCode.NXDOMAIN) ? NXDOMAIN : SERVER_ERROR;
+    }
+}
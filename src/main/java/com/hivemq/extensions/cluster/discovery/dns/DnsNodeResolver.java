@@ -0,0 +1,909 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryAddressFamily;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryRecordType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ReflectiveChannelFactory;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.dns.DefaultDnsQuestion;
+import io.netty.handler.codec.dns.DefaultDnsRecordDecoder;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.resolver.dns.DnsErrorCauseException;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsQueryLifecycleObserver;
+import io.netty.resolver.dns.NoopAuthoritativeDnsServerCache;
+import io.netty.resolver.dns.NoopDnsCache;
+import io.netty.resolver.dns.NoopDnsCnameCache;
+import io.netty.resolver.dns.SequentialDnsServerAddressStreamProvider;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Resolves the addresses of the cluster nodes from the DNS records of a discovery address, either from round-robin
+ * A/AAAA records or from SRV records. Uses one long-lived netty DNS resolver and a TTL-aware answer cache.
+ * <p>
+ * Multiple DNS servers are queried in order, a server that does not answer is failed over to the next one. If a hedge
+ * delay is configured and the first server has not answered within it, the query is additionally sent to the next
+ * server and the first valid answer wins. Queries that time out or fail on the transport are retried with exponential
+ * backoff and jitter within the resolution timeout. Answers that are truncated over UDP are retried over TCP.
+ */
+class DnsNodeResolver {
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(DnsNodeResolver.class);
+
+    private static final @NotNull Comparator<SrvRecord> SRV_ORDER =
+            Comparator.comparingInt((SrvRecord srvRecord) -> srvRecord.priority)
+                    .thenComparing(Comparator.comparingInt((SrvRecord srvRecord) -> srvRecord.weight).reversed());
+
+    // payload size of plain DNS over UDP and the maximum payload size of EDNS0
+    private static final int MIN_UDP_PAYLOAD_SIZE = 512;
+    private static final int MAX_UDP_PAYLOAD_SIZE = 65535;
+    // holds the concurrent answers of dozens of discovery addresses, the default buffer only holds about 23 of 4 KiB
+    private static final int DATAGRAM_RECEIVE_BUFFER_SIZE = 1024 * 1024;
+
+    private final @NotNull EventLoopGroup eventLoopGroup;
+    private final @NotNull DnsTransport transport;
+    private final @NotNull DnsDiscoveryMetrics metrics;
+    // error response codes (other than NXDOMAIN) of pending questions, netty does not report them in the failure
+    private final @NotNull Map<String, DnsResponseCode> responseCodes = new ConcurrentHashMap<>();
+    // queries in flight by name and port or record type, concurrent resolutions of the same name share one query
+    private final @NotNull Map<String, CompletableFuture<DnsAnswer>> inFlightQueries = new ConcurrentHashMap<>();
+
+    private @Nullable DnsNameResolver resolver;
+    // queries the DNS servers starting at the second one, only used for hedged queries
+    private @Nullable DnsNameResolver hedgeResolver;
+    private @NotNull List<InetSocketAddress> resolverDnsServerAddresses = List.of();
+    private int resolverQueryTimeout;
+    private int resolverEdnsPayloadSize;
+
+    private volatile @NotNull DnsDiscoveryConfigExtended configuration;
+    private volatile @NotNull DnsDiscoveryCache cache;
+
+    DnsNodeResolver(
+            final @NotNull EventLoopGroup eventLoopGroup,
+            final @NotNull DnsTransport transport,
+            final @NotNull DnsDiscoveryConfigExtended configuration,
+            final @NotNull DnsDiscoveryMetrics metrics) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.transport = transport;
+        this.configuration = configuration;
+        this.metrics = metrics;
+        this.cache = newCache(configuration);
+    }
+
+    private static @NotNull DnsDiscoveryCache newCache(final @NotNull DnsDiscoveryConfigExtended configuration) {
+        return new DnsDiscoveryCache(configuration.getCacheMaxTtl(),
+                configuration.getCacheNegativeTtl(),
+                configuration.getCacheRefreshAhead());
+    }
+
+    /**
+     * Replaces the configuration. The DNS resolver is rebuilt lazily by {@link #getResolver()} if its settings changed,
+     * the answer cache is dropped if its settings or the settings that shape the answers changed.
+     *
+     * @param configuration the new configuration
+     */
+    synchronized void updateConfiguration(final @NotNull DnsDiscoveryConfigExtended configuration) {
+        final var previous = this.configuration;
+        this.configuration = configuration;
+        if (previous.getCacheMaxTtl() != configuration.getCacheMaxTtl() ||
+                previous.getCacheNegativeTtl() != configuration.getCacheNegativeTtl() ||
+                previous.getCacheRefreshAhead() != configuration.getCacheRefreshAhead() ||
+                previous.getRecordType() != configuration.getRecordType() ||
+                previous.getAddressFamily() != configuration.getAddressFamily()) {
+            log.debug("{}: DNS answer cache, record type or address family settings changed, " +
+                    "dropping cached DNS answers.", EXTENSION_NAME);
+            cache = newCache(configuration);
+        }
+    }
+
+    /**
+     * Resolves the node addresses of the given discovery address. Answers are served from the cache while their TTL
+     * is valid and refreshed in the background once the refresh ahead point is reached.
+     *
+     * @param name the discovery address
+     * @param port the cluster port used for nodes discovered by A/AAAA records
+     * @return a future of the node addresses, failed with an {@link UnknownHostException} for negative answers
+     */
+    @NotNull CompletableFuture<List<InetSocketAddress>> resolve(final @NotNull String name, final int port) {
+        return resolveCached(name, name + ':' + port, () -> startQuery(name, port)).thenApply(DnsAnswer::getAddresses);
+    }
+
+    /**
+     * Resolves the zones of the cluster nodes from the TXT records of the given discovery address. Every TXT string
+     * holds whitespace separated {@code <ip>=<zone>} entries, other entries are ignored. The TXT answers are cached and
+     * shared by concurrent resolutions like the address answers.
+     *
+     * @param name the discovery address
+     * @return a future of the zones by the IP address of the cluster nodes
+     */
+    @NotNull CompletableFuture<Map<String, String>> resolveZones(final @NotNull String name) {
+        if (NetUtil.isValidIpV4Address(name) || NetUtil.isValidIpV6Address(name)) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return resolveCached(name, name + ":TXT", () -> queryZones(name)).thenApply(DnsAnswer::getZones);
+    }
+
+    /**
+     * Serves the answer of the given key from the cache, or queries it if it is not cached.
+     *
+     * @param name  the queried name
+     * @param key   the queried name and record type, it identifies the answer in the cache and the query in flight
+     * @param query starts the query of the answer
+     * @return a future of the answer, failed with an {@link UnknownHostException} for cached negative answers
+     */
+    private @NotNull CompletableFuture<DnsAnswer> resolveCached(
+            final @NotNull String name,
+            final @NotNull String key,
+            final @NotNull Supplier<CompletableFuture<DnsAnswer>> query) {
+        final var cache = this.cache;
+        if (!cache.isEnabled()) {
+            return query(key, query);
+        }
+        final var entry = cache.get(key);
+        if (entry == null) {
+            return queryAndCache(cache, key, query);
+        }
+        final var answer = entry.getAnswer();
+        if (answer == null) {
+            final var failure = new UnknownHostException("Failed to resolve '" + name + "' (cached negative answer)");
+            if (entry.getFailureCause() != null) {
+                failure.initCause(entry.getFailureCause());
+            }
+            return CompletableFuture.failedFuture(failure);
+        }
+        if (entry.tryStartRefresh()) {
+            log.debug("{}: Refreshing cached DNS answer '{}' ahead of its expiry.", EXTENSION_NAME, key);
+            queryAndCache(cache, key, query);
+        }
+        return CompletableFuture.completedFuture(answer);
+    }
+
+    private @NotNull CompletableFuture<DnsAnswer> queryAndCache(
+            final @NotNull DnsDiscoveryCache cache,
+            final @NotNull String key,
+            final @NotNull Supplier<CompletableFuture<DnsAnswer>> query) {
+        return query(key, query).whenComplete((answer, throwable) -> {
+            if (answer != null) {
+                cache.putAnswer(key, answer);
+            } else if (isNegativeAnswer(unwrap(throwable))) {
+                cache.putNegative(key, Objects.requireNonNull(unwrap(throwable)).getCause());
+            } else {
+                cache.refreshFailed(key);
+            }
+        });
+    }
+
+    /**
+     * Starts the given query, or joins the query of the same key that is already in flight. The returned future is
+     * shared, so callers must only add dependent stages to it.
+     */
+    private @NotNull CompletableFuture<DnsAnswer> query(
+            final @NotNull String key,
+            final @NotNull Supplier<CompletableFuture<DnsAnswer>> query) {
+        final var inFlightQuery = inFlightQueries.get(key);
+        if (inFlightQuery != null) {
+            metrics.getQueryCoalescedCount().inc();
+            return inFlightQuery;
+        }
+        final var pendingQuery = new CompletableFuture<DnsAnswer>();
+        final var concurrentQuery = inFlightQueries.putIfAbsent(key, pendingQuery);
+        if (concurrentQuery != null) {
+            metrics.getQueryCoalescedCount().inc();
+            return concurrentQuery;
+        }
+        final CompletableFuture<DnsAnswer> startedQuery;
+        try {
+            startedQuery = query.get();
+        } catch (final RuntimeException e) {
+            // e.g. the DNS resolver could not be built, the query must not stay in flight forever
+            inFlightQueries.remove(key, pendingQuery);
+            pendingQuery.completeExceptionally(e);
+            return pendingQuery;
+        }
+        startedQuery.whenComplete((answer, throwable) -> {
+            inFlightQueries.remove(key, pendingQuery);
+            if (throwable != null) {
+                pendingQuery.completeExceptionally(Objects.requireNonNull(unwrap(throwable)));
+            } else {
+                pendingQuery.complete(answer);
+            }
+        });
+        return pendingQuery;
+    }
+
+    private @NotNull CompletableFuture<DnsAnswer> startQuery(final @NotNull String name, final int port) {
+        if (configuration.getRecordType() == DnsDiscoveryRecordType.SRV) {
+            return queryServices(name);
+        }
+        return queryAddresses(name, port);
+    }
+
+    /**
+     * Queries the SRV records of the given name and resolves all distinct targets concurrently. The nodes are ordered
+     * by the priority (ascending) and weight (descending) of their SRV records. Targets that cannot be resolved are
+     * skipped.
+     *
+     * @param name the name to query
+     * @return a future of the answer
+     */
+    private @NotNull CompletableFuture<DnsAnswer> queryServices(final @NotNull String name) {
+        return resolveAll(new DefaultDnsQuestion(name,
+                DnsRecordType.SRV)).thenApply(DnsNodeResolver::decodeServices).thenCompose(srvRecords -> {
+            final var targets = new LinkedHashMap<String, CompletableFuture<DnsAnswer>>();
+            for (final var srvRecord : srvRecords) {
+                targets.computeIfAbsent(srvRecord.target, target -> queryAddresses(target, srvRecord.port));
+            }
+            return CompletableFuture.allOf(targets.values()
+                    .stream()
+                    .map(answer -> answer.exceptionally(throwable -> null))
+                    .toArray(CompletableFuture[]::new)).thenApply(ignored -> mergeServices(name, srvRecords, targets));
+        });
+    }
+
+    private static @NotNull DnsAnswer mergeServices(
+            final @NotNull String name,
+            final @NotNull List<SrvRecord> srvRecords,
+            final @NotNull Map<String, CompletableFuture<DnsAnswer>> targets) {
+        final var answers = new HashMap<String, DnsAnswer>();
+        Throwable failure = null;
+        for (final var target : targets.entrySet()) {
+            try {
+                answers.put(target.getKey(), target.getValue().join());
+            } catch (final CompletionException e) {
+                final var cause = unwrap(e);
+                log.warn("{}: Failed to resolve SRV target '{}' of address '{}' (reason: {}).",
+                        EXTENSION_NAME,
+                        target.getKey(),
+                        name,
+                        Objects.toString(cause));
+                if (failure == null) {
+                    failure = cause;
+                }
+            }
+        }
+
+        final var addresses = new ArrayList<InetSocketAddress>();
+        var ttl = Long.MAX_VALUE;
+        for (final var srvRecord : srvRecords) {
+            final var answer = answers.get(srvRecord.target);
+            if (answer != null) {
+                ttl = Math.min(ttl, Math.min(srvRecord.ttl, answer.getTtl()));
+                for (final var address : answer.getAddresses()) {
+                    addresses.add(new InetSocketAddress(address.getAddress(), srvRecord.port));
+                }
+            }
+        }
+        if (addresses.isEmpty()) {
+            throw new CompletionException(failure != null ?
+                    failure :
+                    new UnknownHostException("No SRV target of '" + name + "' is available"));
+        }
+        // do not cache answers with unresolvable targets, so they are retried on the next reload
+        return new DnsAnswer(addresses, failure == null ? ttl : 0);
+    }
+
+    /**
+     * Queries the address records of the given name. Depending on the configured address family, A and AAAA records
+     * are queried concurrently and merged into one answer, or the addresses of the preferred family are used.
+     *
+     * @param name the name to query
+     * @param port the port of the resulting addresses
+     * @return a future of the answer
+     */
+    private @NotNull CompletableFuture<DnsAnswer> queryAddresses(final @NotNull String name, final int port) {
+        final var ipAddress = NetUtil.createInetAddressFromIpAddressString(name);
+        if (ipAddress != null) {
+            return CompletableFuture.completedFuture(new DnsAnswer(List.of(new InetSocketAddress(ipAddress, port)),
+                    0));
+        }
+
+        final var addressFamily = configuration.getAddressFamily();
+        if (addressFamily == DnsDiscoveryAddressFamily.IPV4_ONLY) {
+            return queryAddresses(name, DnsRecordType.A, port);
+        }
+        if (addressFamily == DnsDiscoveryAddressFamily.IPV6_ONLY) {
+            return queryAddresses(name, DnsRecordType.AAAA, port);
+        }
+        // both queries are sent at once, so dual-stack discovery takes one round trip
+        final var ipv4Answer = queryAddresses(name, DnsRecordType.A, port);
+        final var ipv6Answer = queryAddresses(name, DnsRecordType.AAAA, port);
+        if (addressFamily == DnsDiscoveryAddressFamily.IPV4_PREFERRED) {
+            return preferAnswer(ipv4Answer, ipv6Answer);
+        }
+        if (addressFamily == DnsDiscoveryAddressFamily.IPV6_PREFERRED) {
+            return preferAnswer(ipv6Answer, ipv4Answer);
+        }
+        final var answers = List.of(ipv4Answer, ipv6Answer);
+        return CompletableFuture.allOf(answers.stream()
+                .map(answer -> answer.exceptionally(throwable -> null))
+                .toArray(CompletableFuture[]::new)).thenApply(ignored -> mergeAnswers(answers));
+    }
+
+    private @NotNull CompletableFuture<DnsAnswer> queryAddresses(
+            final @NotNull String name,
+            final @NotNull DnsRecordType recordType,
+            final int port) {
+        return resolveAll(new DefaultDnsQuestion(name, recordType)).thenApply(records -> decodeAddresses(records,
+                port));
+    }
+
+    private @NotNull CompletableFuture<DnsAnswer> queryZones(final @NotNull String name) {
+        return resolveAll(new DefaultDnsQuestion(name, DnsRecordType.TXT)).thenApply(records -> {
+            var ttl = Long.MAX_VALUE;
+            for (final var record : records) {
+                ttl = Math.min(ttl, record.timeToLive());
+            }
+            return new DnsAnswer(decodeZones(records), records.isEmpty() ? 0 : ttl);
+        });
+    }
+
+    /**
+     * Completes with the preferred answer as soon as it has addresses, without waiting for the fallback answer.
+     * Otherwise the fallback answer is used.
+     */
+    private static @NotNull CompletableFuture<DnsAnswer> preferAnswer(
+            final @NotNull CompletableFuture<DnsAnswer> preferred,
+            final @NotNull CompletableFuture<DnsAnswer> fallback) {
+        return preferred.handle((answer, throwable) -> answer != null && !answer.getAddresses().isEmpty())
+                .thenCompose(hasAddresses -> hasAddresses ?
+                        preferred :
+                        fallback.handle((answer, throwable) -> null)
+                                .thenApply(ignored -> mergeAnswers(List.of(preferred, fallback))));
+    }
+
+    /**
+     * Resolves the records of the given question. Timeouts and transport errors are retried as configured, as long as
+     * the retry can start within the resolution timeout.
+     *
+     * @param question the question to resolve
+     * @return a future of the records, they must be released by the caller
+     */
+    private @NotNull CompletableFuture<List<DnsRecord>> resolveAll(final @NotNull DnsQuestion question) {
+        final var startTime = System.nanoTime();
+        final var deadline = startTime + TimeUnit.MILLISECONDS.toNanos(configuration.getResolutionTimeoutMillis());
+        final var result = new CompletableFuture<List<DnsRecord>>();
+        resolveAll(question, 0, deadline, result);
+        return result.whenComplete((records, throwable) -> {
+            metrics.getQueryTime().update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            if (records != null) {
+                metrics.getAnswerSize().update(records.size());
+            }
+        });
+    }
+
+    private void resolveAll(
+            final @NotNull DnsQuestion question,
+            final int attempt,
+            final long deadline,
+            final @NotNull CompletableFuture<List<DnsRecord>> result) {
+        resolveAllOnce(question).whenComplete((records, throwable) -> {
+            final var responseCode = responseCodes.remove(questionKey(question.name(), question.type()));
+            if (throwable == null) {
+                if (!result.complete(records)) {
+                    records.forEach(ReferenceCountUtil::release);
+                }
+                return;
+            }
+            final var cause = unwrap(throwable);
+            final var backoff = backoffMillis(attempt, configuration.getRetryBackoff());
+            if (attempt >= configuration.getQueryRetries() ||
+                    !DnsNameResolver.isTransportOrTimeoutError(cause) ||
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) - deadline >= 0) {
+                result.completeExceptionally(withResponseCode(cause, responseCode));
+                return;
+            }
+            log.debug("{}: Query for '{}' failed (reason: {}), retrying in {}ms.",
+                    EXTENSION_NAME,
+                    question.name(),
+                    Objects.toString(cause),
+                    backoff);
+            try {
+                eventLoopGroup.schedule(() -> resolveAll(question, attempt + 1, deadline, result),
+                        backoff,
+                        TimeUnit.MILLISECONDS);
+            } catch (final RejectedExecutionException e) {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+
+    /**
+     * Adds the error response code to a failure without cause, as netty fails answers like REFUSED the same way as
+     * answers without records.
+     */
+    private static @NotNull Throwable withResponseCode(
+            final @NotNull Throwable failure,
+            final @Nullable DnsResponseCode responseCode) {
+        if (responseCode == null || !(failure instanceof UnknownHostException) || failure.getCause() != null) {
+            return failure;
+        }
+        final var failureWithResponseCode = new UnknownHostException(failure.getMessage());
+        failureWithResponseCode.initCause(new DnsResponseCodeException(responseCode));
+        return failureWithResponseCode;
+    }
+
+    /**
+     * Calculates the exponential backoff before the given retry with equal jitter, i.e. a random value between half and
+     * the full exponential backoff.
+     *
+     * @param attempt        the number of the failed attempt, starting with 0
+     * @param initialBackoff the backoff in milliseconds before the first retry
+     * @return the backoff in milliseconds
+     */
+    static long backoffMillis(final int attempt, final long initialBackoff) {
+        final var backoff = Math.max(1, initialBackoff) << Math.min(attempt, 16);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /**
+     * Resolves the records of the given question once, hedged to the next DNS server if configured.
+     *
+     * @param question the question to resolve
+     * @return a future of the records, they must be released by the caller
+     */
+    private @NotNull CompletableFuture<List<DnsRecord>> resolveAllOnce(final @NotNull DnsQuestion question) {
+        final DnsNameResolver resolver;
+        final DnsNameResolver hedgeResolver;
+        synchronized (this) {
+            resolver = getResolver();
+            hedgeResolver = this.hedgeResolver;
+        }
+        final var primary = toCompletableFuture(resolver.resolveAll(question));
+        final var hedgeDelay = configuration.getHedgeDelay();
+        if (hedgeResolver == null || hedgeDelay <= 0) {
+            return primary;
+        }
+        return hedge(primary, () -> {
+            log.debug("{}: No answer for '{}' within {}ms, sending hedged query to the next DNS server.",
+                    EXTENSION_NAME,
+                    question.name(),
+                    hedgeDelay);
+            return toCompletableFuture(hedgeResolver.resolveAll(question));
+        }, hedgeDelay, eventLoopGroup);
+    }
+
+    /**
+     * Starts the hedged query if the primary query has not completed within the hedge delay. The first successful or
+     * negative answer wins, transport errors and timeouts only fail the result if no other query is pending. Records of
+     * a losing answer are released.
+     *
+     * @param primary          the primary query
+     * @param hedgeQuery       starts the hedged query
+     * @param hedgeDelayMillis the delay in milliseconds after which the hedged query is started
+     * @param executor         the executor to schedule the hedged query on
+     * @return a future of the records of the winning answer
+     */
+    static @NotNull CompletableFuture<List<DnsRecord>> hedge(
+            final @NotNull CompletableFuture<List<DnsRecord>> primary,
+            final @NotNull Supplier<CompletableFuture<List<DnsRecord>>> hedgeQuery,
+            final long hedgeDelayMillis,
+            final @NotNull ScheduledExecutorService executor) {
+        final var result = new CompletableFuture<List<DnsRecord>>();
+        final var pending = new AtomicInteger(1);
+        final var hedgeTask = executor.schedule(() -> {
+            if (!result.isDone()) {
+                pending.incrementAndGet();
+                completeHedged(result, hedgeQuery.get(), pending);
+            }
+        }, hedgeDelayMillis, TimeUnit.MILLISECONDS);
+        result.whenComplete((records, throwable) -> hedgeTask.cancel(false));
+        completeHedged(result, primary, pending);
+        return result;
+    }
+
+    private static void completeHedged(
+            final @NotNull CompletableFuture<List<DnsRecord>> result,
+            final @NotNull CompletableFuture<List<DnsRecord>> query,
+            final @NotNull AtomicInteger pending) {
+        query.whenComplete((records, throwable) -> {
+            if (throwable == null) {
+                if (!result.complete(records)) {
+                    records.forEach(ReferenceCountUtil::release);
+                }
+            } else if (!DnsNameResolver.isTransportOrTimeoutError(unwrap(throwable)) ||
+                    pending.decrementAndGet() == 0) {
+                result.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    /**
+     * Returns the DNS resolver. The resolver (including its channel and cache) is kept until it is closed and is only
+     * rebuilt when the configured DNS server addresses, the query timeout or the EDNS0 payload size change.
+     *
+     * @return the DNS resolver for the current configuration
+     */
+    synchronized @NotNull DnsNameResolver getResolver() {
+        final var dnsServerAddresses = configuration.getDnsServerAddresses();
+        final var queryTimeout = configuration.getQueryTimeout();
+        final var ednsPayloadSize = configuration.getEdnsPayloadSize();
+        if (resolver != null &&
+                resolverDnsServerAddresses.equals(dnsServerAddresses) &&
+                resolverQueryTimeout == queryTimeout &&
+                resolverEdnsPayloadSize == ednsPayloadSize) {
+            return resolver;
+        }
+        if (resolver != null) {
+            log.debug("{}: DNS server addresses ({}), query timeout ({}ms) or EDNS0 payload size ({}) changed, " +
+                            "rebuilding DNS resolver.",
+                    EXTENSION_NAME,
+                    dnsServerAddresses,
+                    queryTimeout,
+                    ednsPayloadSize);
+            close();
+        }
+
+        resolver = buildResolver(dnsServerAddresses, queryTimeout, ednsPayloadSize);
+        if (dnsServerAddresses.size() > 1) {
+            final var hedgeDnsServerAddresses = new ArrayList<>(dnsServerAddresses);
+            Collections.rotate(hedgeDnsServerAddresses, -1);
+            hedgeResolver = buildResolver(hedgeDnsServerAddresses, queryTimeout, ednsPayloadSize);
+        }
+        resolverDnsServerAddresses = dnsServerAddresses;
+        resolverQueryTimeout = queryTimeout;
+        resolverEdnsPayloadSize = ednsPayloadSize;
+        return resolver;
+    }
+
+    @NotNull DnsNameResolver buildResolver(
+            final @NotNull List<InetSocketAddress> dnsServerAddresses,
+            final int queryTimeout,
+            final int ednsPayloadSize) {
+        // initialize netty DNS resolver, all discovery addresses are queried at once over the one channel of the
+        // resolver, its receive buffer is raised so the concurrent large answers for many names are not dropped
+        // truncated UDP answers are retried over TCP, otherwise nodes beyond the first few dozen would be missing
+        final var datagramChannelFactory = new ReflectiveChannelFactory<>(transport.getDatagramChannelType());
+        final var dnsNameResolverBuilder = new DnsNameResolverBuilder(eventLoopGroup.next());
+        dnsNameResolverBuilder.datagramChannelFactory(() -> {
+                    final var channel = datagramChannelFactory.newChannel();
+                    channel.config().setOption(ChannelOption.SO_RCVBUF, DATAGRAM_RECEIVE_BUFFER_SIZE);
+                    return channel;
+                })
+                .socketChannelType(transport.getSocketChannelType())
+                // answers are only cached by the extension's own cache, which honours the configured TTL bounds
+                .resolveCache(NoopDnsCache.INSTANCE)
+                .cnameCache(NoopDnsCnameCache.INSTANCE)
+                .authoritativeDnsServerCache(NoopAuthoritativeDnsServerCache.INSTANCE)
+                .dnsQueryLifecycleObserverFactory(QueryObserver::new);
+        if (ednsPayloadSize > 0) {
+            dnsNameResolverBuilder.optResourceEnabled(true)
+                    .maxPayloadSize(Math.max(MIN_UDP_PAYLOAD_SIZE, Math.min(MAX_UDP_PAYLOAD_SIZE, ednsPayloadSize)));
+        } else {
+            dnsNameResolverBuilder.optResourceEnabled(false);
+        }
+        if (queryTimeout > 0) {
+            dnsNameResolverBuilder.queryTimeoutMillis(queryTimeout);
+        }
+
+        // use custom DNS server addresses if necessary, they are failed over in order
+        if (!dnsServerAddresses.isEmpty()) {
+            dnsNameResolverBuilder.nameServerProvider(new SequentialDnsServerAddressStreamProvider(dnsServerAddresses));
+        }
+        return dnsNameResolverBuilder.build();
+    }
+
+    synchronized void close() {
+        if (resolver != null) {
+            resolver.close();
+            resolver = null;
+        }
+        if (hedgeResolver != null) {
+            hedgeResolver.close();
+            hedgeResolver = null;
+        }
+        resolverDnsServerAddresses = List.of();
+    }
+
+    private static @NotNull DnsAnswer mergeAnswers(final @NotNull List<CompletableFuture<DnsAnswer>> answers) {
+        final var addresses = new ArrayList<InetSocketAddress>();
+        var ttl = Long.MAX_VALUE;
+        Throwable failure = null;
+        for (final var answer : answers) {
+            try {
+                final var dnsAnswer = answer.join();
+                addresses.addAll(dnsAnswer.getAddresses());
+                ttl = Math.min(ttl, dnsAnswer.getTtl());
+            } catch (final CompletionException e) {
+                final var cause = unwrap(e);
+                // a negative answer for one address type is expected, any other failure takes precedence
+                if (failure == null || (isNegativeAnswer(failure) && !isNegativeAnswer(cause))) {
+                    failure = cause;
+                }
+            }
+        }
+        if (addresses.isEmpty() && failure != null) {
+            throw new CompletionException(failure);
+        }
+        return new DnsAnswer(addresses, failure == null || isNegativeAnswer(failure) ? ttl : 0);
+    }
+
+    private static @NotNull DnsAnswer decodeAddresses(final @NotNull List<DnsRecord> records, final int port) {
+        try {
+            final var addresses = new ArrayList<InetSocketAddress>(records.size());
+            var ttl = Long.MAX_VALUE;
+            for (final var record : records) {
+                if (record instanceof DnsRawRecord) {
+                    final var address = ByteBufUtil.getBytes(((DnsRawRecord) record).content());
+                    if (address.length == 4 || address.length == 16) {
+                        addresses.add(new InetSocketAddress(InetAddress.getByAddress(address), port));
+                        ttl = Math.min(ttl, record.timeToLive());
+                    }
+                }
+            }
+            return new DnsAnswer(addresses, addresses.isEmpty() ? 0 : ttl);
+        } catch (final UnknownHostException e) {
+            throw new CompletionException(e);
+        } finally {
+            records.forEach(ReferenceCountUtil::release);
+        }
+    }
+
+    /**
+     * Decodes the given SRV records (RFC 2782). Records with the target "." (service not available) are skipped.
+     *
+     * @param records the SRV records, they are released by this method
+     * @return the decoded SRV records ordered by priority and weight
+     */
+    static @NotNull List<SrvRecord> decodeServices(final @NotNull List<DnsRecord> records) {
+        try {
+            final var srvRecords = new ArrayList<SrvRecord>(records.size());
+            for (final var record : records) {
+                if (record instanceof DnsRawRecord) {
+                    // the content is a view on the whole DNS message, so compressed target names can be decoded
+                    final ByteBuf content = ((DnsRawRecord) record).content().duplicate();
+                    final var priority = content.readUnsignedShort();
+                    final var weight = content.readUnsignedShort();
+                    final var port = content.readUnsignedShort();
+                    final var target = DefaultDnsRecordDecoder.decodeName(content);
+                    if (port > 0 && !target.equals(".")) {
+                        srvRecords.add(new SrvRecord(priority, weight, port, target, record.timeToLive()));
+                    }
+                }
+            }
+            if (srvRecords.isEmpty()) {
+                throw new CompletionException(new UnknownHostException("No SRV target is available"));
+            }
+            srvRecords.sort(SRV_ORDER);
+            return srvRecords;
+        } finally {
+            records.forEach(ReferenceCountUtil::release);
+        }
+    }
+
+    /**
+     * Decodes the given TXT records (RFC 1035) into zones by IP address.
+     *
+     * @param records the TXT records, they are released by this method
+     * @return the zones by the IP address of the cluster nodes
+     */
+    static @NotNull Map<String, String> decodeZones(final @NotNull List<DnsRecord> records) {
+        try {
+            final var zones = new HashMap<String, String>();
+            for (final var record : records) {
+                if (record instanceof DnsRawRecord) {
+                    final ByteBuf content = ((DnsRawRecord) record).content().duplicate();
+                    // the RDATA is a sequence of strings, each prefixed with its length
+                    while (content.isReadable()) {
+                        final var length = Math.min(content.readUnsignedByte(), content.readableBytes());
+                        final var text = content.readCharSequence(length, StandardCharsets.US_ASCII).toString();
+                        for (final var entry : text.trim().split("\\s+")) {
+                            addZone(zones, entry);
+                        }
+                    }
+                }
+            }
+            return zones;
+        } finally {
+            records.forEach(ReferenceCountUtil::release);
+        }
+    }
+
+    private static void addZone(final @NotNull Map<String, String> zones, final @NotNull String entry) {
+        final var separator = entry.indexOf('=');
+        if (separator <= 0 || separator == entry.length() - 1) {
+            return;
+        }
+        final var address = NetUtil.createInetAddressFromIpAddressString(entry.substring(0, separator));
+        if (address != null) {
+            zones.put(OwnAddressFilter.normalize(address).getHostAddress(), entry.substring(separator + 1));
+        }
+    }
+
+    /**
+     * Checks if the given failure is a negative DNS answer, i.e. the name does not exist (NXDOMAIN) or has no records.
+     */
+    static boolean isNegativeAnswer(final @Nullable Throwable throwable) {
+        if (!(throwable instanceof UnknownHostException)) {
+            return false;
+        }
+        final var cause = throwable.getCause();
+        return cause == null ||
+                (cause instanceof DnsErrorCauseException &&
+                        ((DnsErrorCauseException) cause).getCode() == DnsResponseCode.NXDOMAIN);
+    }
+
+    /**
+     * @return the error response code of the given failure, or {@code null} if it is not caused by one
+     */
+    static @Nullable DnsResponseCode responseCode(final @Nullable Throwable throwable) {
+        if (!(throwable instanceof UnknownHostException)) {
+            return null;
+        }
+        final var cause = throwable.getCause();
+        if (cause instanceof DnsErrorCauseException) {
+            return ((DnsErrorCauseException) cause).getCode();
+        }
+        if (cause instanceof DnsResponseCodeException) {
+            return ((DnsResponseCodeException) cause).getCode();
+        }
+        return null;
+    }
+
+    private static @NotNull String questionKey(final @NotNull String name, final @NotNull DnsRecordType type) {
+        final var normalizedName = name.endsWith(".") ? name.substring(0, name.length() - 1) : name;
+        return normalizedName.toLowerCase(Locale.ROOT) + ' ' + type.intValue();
+    }
+
+    static @Nullable Throwable unwrap(final @Nullable Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ?
+                throwable.getCause() :
+                throwable;
+    }
+
+    static <T> @NotNull CompletableFuture<T> toCompletableFuture(final @NotNull Future<T> future) {
+        final var completableFuture = new CompletableFuture<T>();
+        future.addListener(ignored -> {
+            if (future.isSuccess()) {
+                completableFuture.complete(future.getNow());
+            } else {
+                completableFuture.completeExceptionally(future.cause());
+            }
+        });
+        return completableFuture;
+    }
+
+    /**
+     * Failure cause for error response codes that netty does not report itself.
+     */
+    static class DnsResponseCodeException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        // the response code is not serializable, the exception is never serialized anyway
+        private final transient @NotNull DnsResponseCode code;
+
+        DnsResponseCodeException(final @NotNull DnsResponseCode code) {
+            super("Query failed with " + code, null, false, false);
+            this.code = code;
+        }
+
+        @NotNull DnsResponseCode getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * Remembers the last error response code of a question, until its resolution completes, and counts the queries
+     * that are retried over TCP because their UDP answer was truncated.
+     */
+    private class QueryObserver implements DnsQueryLifecycleObserver {
+
+        private final @NotNull String questionKey;
+
+        private QueryObserver(final @NotNull DnsQuestion question) {
+            this.questionKey = questionKey(question.name(), question.type());
+        }
+
+        @Override
+        public void queryWritten(final @NotNull InetSocketAddress nameServer, final @NotNull ChannelFuture future) {
+            // TCP is only used as fallback for truncated answers
+            if (future.channel() instanceof SocketChannel) {
+                metrics.getQueryTruncatedCount().inc();
+            }
+        }
+
+        @Override
+        public void queryCancelled(final int queriesRemaining) {
+        }
+
+        @Override
+        public @NotNull DnsQueryLifecycleObserver queryRedirected(final @NotNull List<InetSocketAddress> nameServers) {
+            return this;
+        }
+
+        @Override
+        public @NotNull DnsQueryLifecycleObserver queryCNAMEd(final @NotNull DnsQuestion cnameQuestion) {
+            return this;
+        }
+
+        @Override
+        public @NotNull DnsQueryLifecycleObserver queryNoAnswer(final @NotNull DnsResponseCode code) {
+            if (!code.equals(DnsResponseCode.NOERROR)) {
+                responseCodes.put(questionKey, code);
+            }
+            return this;
+        }
+
+        @Override
+        public void queryFailed(final @NotNull Throwable cause) {
+        }
+
+        @Override
+        public void querySucceed() {
+        }
+    }
+
+    static class SrvRecord {
+
+        final int priority;
+        final int weight;
+        final int port;
+        final @NotNull String target;
+        final long ttl;
+
+        SrvRecord(final int priority, final int weight, final int port, final @NotNull String target, final long ttl) {
+            this.priority = priority;
+            this.weight = weight;
+            this.port = port;
+            this.target = target;
+            this.ttl = ttl;
+        }
+    }
+}
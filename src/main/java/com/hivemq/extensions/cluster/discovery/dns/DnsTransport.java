@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The netty transport of the DNS resolver: the event loop and the channel types of UDP and TCP queries.
+ */
+enum DnsTransport {
+
+    /**
+     * Java NIO, available on all platforms.
+     */
+    NIO {
+        @Override
+        @NotNull EventLoopGroup newEventLoopGroup(final int threads) {
+            return new MultiThreadIoEventLoopGroup(threads, NioIoHandler.newFactory());
+        }
+
+        @Override
+        @NotNull Class<? extends DatagramChannel> getDatagramChannelType() {
+            return NioDatagramChannel.class;
+        }
+
+        @Override
+        @NotNull Class<? extends SocketChannel> getSocketChannelType() {
+            return NioSocketChannel.class;
+        }
+    },
+
+    /**
+     * Native epoll on Linux, saves the selector overhead and system calls of NIO.
+     */
+    EPOLL {
+        @Override
+        @NotNull EventLoopGroup newEventLoopGroup(final int threads) {
+            return new MultiThreadIoEventLoopGroup(threads, EpollIoHandler.newFactory());
+        }
+
+        @Override
+        @NotNull Class<? extends DatagramChannel> getDatagramChannelType() {
+            return EpollDatagramChannel.class;
+        }
+
+        @Override
+        @NotNull Class<? extends SocketChannel> getSocketChannelType() {
+            return EpollSocketChannel.class;
+        }
+    };
+
+    /**
+     * @return the native epoll transport if it is available on this platform, NIO otherwise
+     */
+    static @NotNull DnsTransport detect() {
+        // unavailable on other platforms than Linux, if the native library cannot be loaded or
+        // if io.netty.transport.noNative is set
+        return Epoll.isAvailable() ? EPOLL : NIO;
+    }
+
+    abstract @NotNull EventLoopGroup newEventLoopGroup(int threads);
+
+    abstract @NotNull Class<? extends DatagramChannel> getDatagramChannelType();
+
+    abstract @NotNull Class<? extends SocketChannel> getSocketChannelType();
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Immutable difference between the cluster nodes of two consecutive DNS resolutions.
+ */
+class MembershipDelta {
+
+    private final @NotNull List<ClusterNodeAddress> added;
+    private final @NotNull List<ClusterNodeAddress> removed;
+    private final @NotNull List<ClusterNodeAddress> unchanged;
+
+    private MembershipDelta(
+            final @NotNull List<ClusterNodeAddress> added,
+            final @NotNull List<ClusterNodeAddress> removed,
+            final @NotNull List<ClusterNodeAddress> unchanged) {
+        this.added = added;
+        this.removed = removed;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Calculates the delta in linear time with one hash set of the previous nodes. The order of the given lists is
+     * kept.
+     *
+     * @param previous the distinct cluster nodes of the previous resolution
+     * @param current  the distinct cluster nodes of the current resolution
+     * @return the delta from the previous to the current cluster nodes
+     */
+    static @NotNull MembershipDelta of(
+            final @NotNull List<ClusterNodeAddress> previous,
+            final @NotNull List<ClusterNodeAddress> current) {
+        final var remaining = new HashSet<ClusterNodeAddress>(Math.max(16, (int) (previous.size() / 0.75f) + 1));
+        remaining.addAll(previous);
+        List<ClusterNodeAddress> added = List.of();
+        final var unchanged = new ArrayList<ClusterNodeAddress>(Math.min(previous.size(), current.size()));
+        for (final var node : current) {
+            if (remaining.remove(node)) {
+                unchanged.add(node);
+            } else {
+                if (added.isEmpty()) {
+                    added = new ArrayList<>();
+                }
+                added.add(node);
+            }
+        }
+        List<ClusterNodeAddress> removed = List.of();
+        if (!remaining.isEmpty()) {
+            removed = new ArrayList<>(remaining.size());
+            for (final var node : previous) {
+                if (remaining.contains(node)) {
+                    removed.add(node);
+                }
+            }
+        }
+        return new MembershipDelta(Collections.unmodifiableList(added),
+                Collections.unmodifiableList(removed),
+                Collections.unmodifiableList(unchanged));
+    }
+
+    @NotNull List<ClusterNodeAddress> getAdded() {
+        return added;
+    }
+
+    @NotNull List<ClusterNodeAddress> getRemoved() {
+        return removed;
+    }
+
+    @NotNull List<ClusterNodeAddress> getUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * @return {@code true} if no node was added or removed
+     */
+    boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
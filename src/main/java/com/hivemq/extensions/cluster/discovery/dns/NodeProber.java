@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryProbeMode;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Probes the reachability of discovered cluster nodes with non-blocking TCP connects to their cluster port, so stale
+ * DNS records of nodes that are already gone do not cost HiveMQ connection attempts.
+ * <p>
+ * The probes run in parallel on the extension's event loop, up to the configured concurrency. All state is only
+ * accessed on this event loop. Probe results are reused by later reloads until the probe cache TTL expired.
+ */
+class NodeProber {
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(NodeProber.class);
+
+    private final @NotNull EventLoop eventLoop;
+    private final @NotNull DnsTransport transport;
+    private final @NotNull DnsDiscoveryMetrics metrics;
+    private final @NotNull LongSupplier nanoTime;
+    // only accessed on the event loop
+    private final @NotNull Map<ClusterNodeAddress, ProbeResult> probeResults = new HashMap<>();
+
+    private volatile @NotNull DnsDiscoveryConfigExtended configuration;
+
+    NodeProber(
+            final @NotNull EventLoopGroup eventLoopGroup,
+            final @NotNull DnsTransport transport,
+            final @NotNull DnsDiscoveryConfigExtended configuration,
+            final @NotNull DnsDiscoveryMetrics metrics,
+            final @NotNull LongSupplier nanoTime) {
+        this.eventLoop = eventLoopGroup.next();
+        this.transport = transport;
+        this.configuration = configuration;
+        this.metrics = metrics;
+        this.nanoTime = nanoTime;
+    }
+
+    void updateConfiguration(final @NotNull DnsDiscoveryConfigExtended configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Probes the given cluster nodes as configured by the probe mode.
+     *
+     * @param nodes the discovered cluster nodes
+     * @return a future with the reachable cluster nodes (all cluster nodes if none is reachable) or all cluster nodes
+     *         with the reachable ones first, keeping their order otherwise
+     */
+    @NotNull CompletableFuture<List<ClusterNodeAddress>> probe(final @NotNull List<ClusterNodeAddress> nodes) {
+        final var configuration = this.configuration;
+        if (configuration.getProbeMode() == DnsDiscoveryProbeMode.OFF || nodes.isEmpty()) {
+            return CompletableFuture.completedFuture(nodes);
+        }
+        final var result = new CompletableFuture<List<ClusterNodeAddress>>();
+        try {
+            eventLoop.execute(() -> new ProbeRound(nodes, configuration, result).start());
+        } catch (final RejectedExecutionException e) {
+            // the extension is being stopped
+            result.complete(nodes);
+        }
+        return result;
+    }
+
+    private class ProbeRound {
+
+        private final @NotNull List<ClusterNodeAddress> nodes;
+        private final @NotNull DnsDiscoveryConfigExtended configuration;
+        private final @NotNull CompletableFuture<List<ClusterNodeAddress>> result;
+        private final @NotNull Map<ClusterNodeAddress, Boolean> reachable = new HashMap<>();
+        private final @NotNull ArrayDeque<ClusterNodeAddress> pending = new ArrayDeque<>();
+        private int running;
+
+        private ProbeRound(
+                final @NotNull List<ClusterNodeAddress> nodes,
+                final @NotNull DnsDiscoveryConfigExtended configuration,
+                final @NotNull CompletableFuture<List<ClusterNodeAddress>> result) {
+            this.nodes = nodes;
+            this.configuration = configuration;
+            this.result = result;
+        }
+
+        private void start() {
+            // results of nodes that are not discovered anymore are not needed
+            probeResults.keySet().retainAll(new HashSet<>(nodes));
+            final var now = nanoTime.getAsLong();
+            final var cacheTtl = TimeUnit.SECONDS.toNanos(Math.max(0, configuration.getProbeCacheTtl()));
+            for (final var node : nodes) {
+                final var probeResult = probeResults.get(node);
+                if (probeResult != null && now - probeResult.probedAt < cacheTtl) {
+                    reachable.put(node, probeResult.reachable);
+                } else if (!reachable.containsKey(node)) {
+                    reachable.put(node, false);
+                    pending.add(node);
+                }
+            }
+            startProbes();
+            completeIfDone();
+        }
+
+        private void startProbes() {
+            final var concurrency = Math.max(1, configuration.getProbeConcurrency());
+            while (running < concurrency && !pending.isEmpty()) {
+                connect(pending.poll());
+            }
+        }
+
+        private void connect(final @NotNull ClusterNodeAddress node) {
+            running++;
+            try {
+                new Bootstrap().group(eventLoop)
+                        .channel(transport.getSocketChannelType())
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.max(1, configuration.getProbeTimeout()))
+                        .handler(new ChannelInboundHandlerAdapter())
+                        .connect(new InetSocketAddress(node.getHost(), node.getPort()))
+                        .addListener((ChannelFutureListener) future -> {
+                            if (future.isSuccess()) {
+                                future.channel().close();
+                            }
+                            onProbed(node, future.isSuccess());
+                        });
+            } catch (final RuntimeException e) {
+                onProbed(node, false);
+            }
+        }
+
+        private void onProbed(final @NotNull ClusterNodeAddress node, final boolean isReachable) {
+            running--;
+            reachable.put(node, isReachable);
+            probeResults.put(node, new ProbeResult(isReachable, nanoTime.getAsLong()));
+            if (!isReachable) {
+                metrics.getProbeUnreachableCount().inc();
+                log.debug("{}: Discovered address '{}' is not reachable.", EXTENSION_NAME, node);
+            }
+            startProbes();
+            completeIfDone();
+        }
+
+        private void completeIfDone() {
+            if (running > 0 || !pending.isEmpty() || result.isDone()) {
+                return;
+            }
+            final var probedNodes = new ArrayList<ClusterNodeAddress>(nodes.size());
+            final var unreachableNodes = new ArrayList<ClusterNodeAddress>();
+            for (final var node : nodes) {
+                if (reachable.get(node)) {
+                    probedNodes.add(node);
+                } else {
+                    unreachableNodes.add(node);
+                }
+            }
+            if (configuration.getProbeMode() == DnsDiscoveryProbeMode.PRIORITIZE) {
+                probedNodes.addAll(unreachableNodes);
+            } else if (probedNodes.isEmpty()) {
+                // more likely a problem of this node (e.g. its network) than all other nodes being gone
+                log.warn("{}: None of the {} discovered cluster nodes is reachable, providing all of them.",
+                        EXTENSION_NAME,
+                        nodes.size());
+                result.complete(nodes);
+                return;
+            }
+            result.complete(List.copyOf(probedNodes));
+        }
+    }
+
+    private static class ProbeResult {
+
+        private final boolean reachable;
+        private final long probedAt;
+
+        private ProbeResult(final boolean reachable, final long probedAt) {
+            this.reachable = reachable;
+            this.probedAt = probedAt;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * File with the cluster nodes of the last successful DNS resolution, one {@code host:port} per line. It survives a
+ * restart, so the cluster nodes are known right away while the first DNS resolution is still running.
+ * <p>
+ * The file also holds the time it was written and the discovery addresses the cluster nodes were resolved from, so
+ * outdated cluster nodes or the cluster nodes of other discovery addresses are not used after a restart. When a later
+ * resolution confirms the same cluster nodes, only the modification time of the file is updated, so their age counts
+ * from then without rewriting the file.
+ */
+class NodeSnapshotFile {
+
+    static final @NotNull String SNAPSHOT_PATH = "data/cluster-nodes.txt";
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(NodeSnapshotFile.class);
+    private static final @NotNull String HEADER = "# cluster nodes of the last successful DNS resolution";
+    private static final @NotNull String WRITTEN_AT = "# written-at: ";
+    private static final @NotNull String DISCOVERY_ADDRESSES = "# discovery-addresses: ";
+
+    private final @NotNull Path path;
+    private final @NotNull LongSupplier currentTimeMillis;
+
+    NodeSnapshotFile(final @NotNull Path path) {
+        this(path, System::currentTimeMillis);
+    }
+
+    NodeSnapshotFile(final @NotNull Path path, final @NotNull LongSupplier currentTimeMillis) {
+        this.path = path;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * @return the stored cluster nodes, {@code null} if there are none or the file is not readable
+     */
+    @Nullable StoredNodes load() {
+        final List<String> lines;
+        final long modifiedAt;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            modifiedAt = Files.getLastModifiedTime(path).toMillis();
+        } catch (final NoSuchFileException e) {
+            return null;
+        } catch (final IOException e) {
+            log.warn("{}: Could not read the cluster nodes of the last run from '{}': {}",
+                    EXTENSION_NAME,
+                    path,
+                    e.getMessage());
+            return null;
+        }
+        final var nodes = new ArrayList<ClusterNodeAddress>(lines.size());
+        Long writtenAt = null;
+        List<String> discoveryAddresses = null;
+        for (final var line : lines) {
+            try {
+                if (line.startsWith(WRITTEN_AT)) {
+                    writtenAt = Long.parseLong(line.substring(WRITTEN_AT.length()).trim());
+                    continue;
+                }
+                if (line.startsWith(DISCOVERY_ADDRESSES)) {
+                    discoveryAddresses = List.of(line.substring(DISCOVERY_ADDRESSES.length()).trim().split(","));
+                    continue;
+                }
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // IPv6 addresses contain colons as well, the port follows the last one
+                final var separator = line.lastIndexOf(':');
+                nodes.add(new ClusterNodeAddress(line.substring(0, separator),
+                        Integer.parseInt(line.substring(separator + 1))));
+            } catch (final RuntimeException e) {
+                log.warn("{}: Ignoring the cluster nodes of the last run, '{}' contains the invalid line '{}'.",
+                        EXTENSION_NAME,
+                        path,
+                        line);
+                return null;
+            }
+        }
+        if (writtenAt == null || discoveryAddresses == null) {
+            log.warn("{}: Ignoring the cluster nodes of the last run, '{}' does not tell when and for which " +
+                    "discovery addresses they were resolved.", EXTENSION_NAME, path);
+            return null;
+        }
+        final var confirmedAt = Math.max(writtenAt, modifiedAt);
+        return new StoredNodes(nodes, discoveryAddresses, Math.max(0, currentTimeMillis.getAsLong() - confirmedAt));
+    }
+
+    /**
+     * Replaces the stored cluster nodes. The file is written next to the target and moved in place, so a crash never
+     * leaves a partially written file behind.
+     *
+     * @param nodes              the cluster nodes to store
+     * @param discoveryAddresses the discovery addresses the cluster nodes were resolved from
+     */
+    void store(final @NotNull List<ClusterNodeAddress> nodes, final @NotNull List<String> discoveryAddresses) {
+        final var writtenAt = currentTimeMillis.getAsLong();
+        final var lines = new ArrayList<String>(nodes.size() + 3);
+        lines.add(HEADER);
+        lines.add(WRITTEN_AT + writtenAt);
+        lines.add(DISCOVERY_ADDRESSES + String.join(",", discoveryAddresses));
+        for (final var node : nodes) {
+            lines.add(node.getHost() + ':' + node.getPort());
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            final var tempPath = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tempPath, lines, StandardCharsets.UTF_8);
+                Files.setLastModifiedTime(tempPath, FileTime.fromMillis(writtenAt));
+                try {
+                    Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        } catch (final IOException e) {
+            log.warn("{}: Could not store the cluster nodes to '{}': {}", EXTENSION_NAME, path, e.getMessage());
+        }
+    }
+
+    /**
+     * Marks the stored cluster nodes as confirmed by a resolution now, by updating the modification time of the file.
+     */
+    void touch() {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(currentTimeMillis.getAsLong()));
+        } catch (final IOException e) {
+            log.warn("{}: Could not update the time of the cluster nodes in '{}': {}",
+                    EXTENSION_NAME,
+                    path,
+                    e.getMessage());
+        }
+    }
+
+    static class StoredNodes {
+
+        private final @NotNull List<ClusterNodeAddress> nodes;
+        private final @NotNull List<String> discoveryAddresses;
+        private final long age;
+
+        private StoredNodes(
+                final @NotNull List<ClusterNodeAddress> nodes,
+                final @NotNull List<String> discoveryAddresses,
+                final long age) {
+            this.nodes = nodes;
+            this.discoveryAddresses = discoveryAddresses;
+            this.age = age;
+        }
+
+        @NotNull List<ClusterNodeAddress> getNodes() {
+            return nodes;
+        }
+
+        @NotNull List<String> getDiscoveryAddresses() {
+            return discoveryAddresses;
+        }
+
+        /**
+         * @return the time since the cluster nodes were stored or last confirmed in milliseconds
+         */
+        long getAge() {
+            return age;
+        }
+    }
+}
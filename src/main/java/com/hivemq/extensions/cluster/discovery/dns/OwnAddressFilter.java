@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import org.apache.commons.validator.routines.InetAddressValidator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Removes the addresses of this cluster node from the discovered addresses, so HiveMQ does not try to connect to
+ * itself. An address belongs to this node if it has the own cluster port and is the own cluster address or an address
+ * of any local network interface. IPv4-mapped IPv6 addresses are compared as IPv4 addresses.
+ * <p>
+ * The addresses of the local network interfaces are cached for {@link #LOCAL_ADDRESSES_TTL_NANOS}, so they are not
+ * listed again on every refresh.
+ */
+class OwnAddressFilter {
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(OwnAddressFilter.class);
+
+    static final long LOCAL_ADDRESSES_TTL_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final @NotNull Supplier<Set<InetAddress>> localAddresses;
+    private final @NotNull LongSupplier nanoTime;
+    private volatile @Nullable OwnAddresses cachedOwnAddresses;
+
+    OwnAddressFilter() {
+        this(OwnAddressFilter::networkInterfaceAddresses, System::nanoTime);
+    }
+
+    OwnAddressFilter(final @NotNull Supplier<Set<InetAddress>> localAddresses, final @NotNull LongSupplier nanoTime) {
+        this.localAddresses = localAddresses;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @param addresses  the discovered addresses
+     * @param ownAddress the cluster address of this node
+     * @return the discovered addresses without the ones of this node, the same list if there are none
+     */
+    @NotNull List<InetSocketAddress> filter(
+            final @NotNull List<InetSocketAddress> addresses,
+            final @NotNull ClusterNodeAddress ownAddress) {
+        // the own addresses are only needed if a discovered address has the own port, which every address of A/AAAA
+        // records has, so the local interfaces are listed at most once per TTL or when the own address changes
+        Set<InetAddress> ownAddresses = null;
+        List<InetSocketAddress> otherAddresses = null;
+        for (var i = 0; i < addresses.size(); i++) {
+            final var address = addresses.get(i);
+            if (address != null && address.getPort() == ownAddress.getPort() && address.getAddress() != null) {
+                if (ownAddresses == null) {
+                    ownAddresses = ownAddresses(ownAddress);
+                }
+                if (ownAddresses.contains(normalize(address.getAddress()))) {
+                    if (otherAddresses == null) {
+                        otherAddresses = new ArrayList<>(addresses.subList(0, i));
+                    }
+                    continue;
+                }
+            }
+            if (otherAddresses != null) {
+                otherAddresses.add(address);
+            }
+        }
+        return otherAddresses != null ? otherAddresses : addresses;
+    }
+
+    private @NotNull Set<InetAddress> ownAddresses(final @NotNull ClusterNodeAddress ownAddress) {
+        final var now = nanoTime.getAsLong();
+        final var cached = cachedOwnAddresses;
+        if (cached != null && cached.host.equals(ownAddress.getHost()) &&
+                now - cached.listedAt < LOCAL_ADDRESSES_TTL_NANOS) {
+            return cached.addresses;
+        }
+        final var ownAddresses = new HashSet<InetAddress>();
+        for (final var localAddress : localAddresses.get()) {
+            ownAddresses.add(normalize(localAddress));
+        }
+        // the own cluster address is only an IP literal, a host name is not resolved here
+        if (InetAddressValidator.getInstance().isValid(ownAddress.getHost())) {
+            try {
+                ownAddresses.add(normalize(InetAddress.getByName(ownAddress.getHost())));
+            } catch (final UnknownHostException ignored) {
+                // not possible for an IP literal
+            }
+        }
+        cachedOwnAddresses = new OwnAddresses(ownAddress.getHost(), ownAddresses, now);
+        return ownAddresses;
+    }
+
+    /**
+     * @return the IPv4 address of an IPv4-mapped IPv6 address ({@code ::ffff:a.b.c.d}), the address itself otherwise
+     */
+    static @NotNull InetAddress normalize(final @NotNull InetAddress address) {
+        if (!(address instanceof Inet6Address)) {
+            return address;
+        }
+        final var bytes = address.getAddress();
+        for (var i = 0; i < 10; i++) {
+            if (bytes[i] != 0) {
+                return address;
+            }
+        }
+        if (bytes[10] != (byte) 0xff || bytes[11] != (byte) 0xff) {
+            return address;
+        }
+        try {
+            return InetAddress.getByAddress(Arrays.copyOfRange(bytes, 12, 16));
+        } catch (final UnknownHostException e) {
+            return address;
+        }
+    }
+
+    private static @NotNull Set<InetAddress> networkInterfaceAddresses() {
+        final var addresses = new HashSet<InetAddress>();
+        try {
+            final var networkInterfaces = NetworkInterface.getNetworkInterfaces();
+            if (networkInterfaces == null) {
+                return addresses;
+            }
+            for (final var networkInterface : Collections.list(networkInterfaces)) {
+                addresses.addAll(Collections.list(networkInterface.getInetAddresses()));
+            }
+        } catch (final SocketException e) {
+            log.debug("{}: Could not list the addresses of the local network interfaces.", EXTENSION_NAME, e);
+        }
+        return addresses;
+    }
+
+    private static class OwnAddresses {
+
+        private final @NotNull String host;
+        private final @NotNull Set<InetAddress> addresses;
+        private final long listedAt;
+
+        private OwnAddresses(
+                final @NotNull String host,
+                final @NotNull Set<InetAddress> addresses,
+                final long listedAt) {
+            this.host = host;
+            this.addresses = addresses;
+            this.listedAt = listedAt;
+        }
+    }
+}
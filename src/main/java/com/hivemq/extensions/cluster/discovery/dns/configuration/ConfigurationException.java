@@ -20,6 +20,10 @@ import org.jetbrains.annotations.NotNull;
 
 public class ConfigurationException extends RuntimeException {
 
+    public ConfigurationException(final @NotNull String message) {
+        super(message);
+    }
+
     public ConfigurationException(final @NotNull Throwable cause) {
         super(cause);
     }
@@ -16,12 +16,12 @@
 
 package com.hivemq.extensions.cluster.discovery.dns.configuration;
 
-import org.aeonbits.owner.ConfigFactory;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Properties;
 
 /**
@@ -40,7 +40,13 @@ public class ConfigurationFileReader {
     public ConfigurationFileReader(final @NotNull File extensionHomeFolder) {
         this.configResolver =
                 new ConfigResolver(extensionHomeFolder.toPath(), EXTENSION_NAME, CONFIG_PATH, LEGACY_CONFIG_PATH);
-        ConfigFactory.setProperty("configFile", configResolver.get().toFile().getAbsolutePath());
+    }
+
+    /**
+     * @return the path of the configuration file, it does not have to exist
+     */
+    public @NotNull Path getConfigPath() {
+        return configResolver.get();
     }
 
     /**
@@ -48,15 +54,16 @@ public class ConfigurationFileReader {
      * configuration.
      *
      * @return DnsDiscoveryConfigFile The configuration from the config file or default values.
+     * @throws ConfigurationException if a value of the config file cannot be converted to its type
      */
     public @NotNull DnsDiscoveryConfigFile get() {
         final var propertiesFile = configResolver.get().toFile();
         try (final var inputStream = new FileInputStream(propertiesFile)) {
             final var properties = new Properties();
             properties.load(inputStream);
-            return ConfigFactory.create(DnsDiscoveryConfigFile.class, properties);
+            return new DnsDiscoveryConfigProperties(properties);
         } catch (final IOException e) {
-            return ConfigFactory.create(DnsDiscoveryConfigFile.class);
+            return new DnsDiscoveryConfigProperties(new Properties());
         }
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
+
+/**
+ * Watches the configuration file for changes. A changed file is read completely into a new
+ * {@link DnsDiscoveryConfigExtended}, which is handed to the listener as a whole, so the listener never sees a mix of
+ * old and new settings. An invalid file is logged and the current configuration is kept.
+ * <p>
+ * A configuration file mounted from a Kubernetes ConfigMap is a symbolic link into the {@code ..data} directory, which
+ * is replaced on an update without touching the link itself, so changes of {@code ..data} are watched as well.
+ */
+public class ConfigurationFileWatcher implements AutoCloseable {
+
+    private static final @NotNull Logger log = LoggerFactory.getLogger(ConfigurationFileWatcher.class);
+
+    /**
+     * Time in milliseconds without further events before a change is applied, editors often write a file in steps.
+     */
+    static final long SETTLE_MILLIS = 200;
+
+    /**
+     * Symbolic link to the current version of the files of a Kubernetes ConfigMap volume.
+     */
+    static final @NotNull Path CONFIG_MAP_DATA = Path.of("..data");
+
+    private final @NotNull ConfigurationFileReader configurationFileReader;
+    private final @NotNull Consumer<DnsDiscoveryConfigExtended> listener;
+    private final @NotNull Path configPath;
+
+    private @Nullable WatchService watchService;
+    private @Nullable Thread thread;
+
+    public ConfigurationFileWatcher(
+            final @NotNull ConfigurationFileReader configurationFileReader,
+            final @NotNull Consumer<DnsDiscoveryConfigExtended> listener) {
+        this.configurationFileReader = configurationFileReader;
+        this.listener = listener;
+        this.configPath = configurationFileReader.getConfigPath().toAbsolutePath();
+    }
+
+    /**
+     * Starts watching the directory of the configuration file on a daemon thread.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        final var directory = configPath.getParent();
+        final var watchService = directory.getFileSystem().newWatchService();
+        try {
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (final IOException e) {
+            watchService.close();
+            throw e;
+        }
+        this.watchService = watchService;
+        thread = new Thread(() -> watch(watchService), "dns-discovery-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        log.debug("{}: Watching the configuration file '{}' for changes.", EXTENSION_NAME, configPath);
+    }
+
+    private void watch(final @NotNull WatchService watchService) {
+        try {
+            while (true) {
+                if (!isConfigChanged(watchService.take())) {
+                    continue;
+                }
+                // wait until the file settled
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isConfigChanged(key);
+                }
+                apply();
+            }
+        } catch (final ClosedWatchServiceException | InterruptedException ignored) {
+            // closed
+        }
+    }
+
+    private boolean isConfigChanged(final @NotNull WatchKey key) {
+        var changed = false;
+        for (final var event : key.pollEvents()) {
+            if (event.context() instanceof Path &&
+                    (configPath.getFileName().equals(event.context()) || CONFIG_MAP_DATA.equals(event.context()))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void apply() {
+        final DnsDiscoveryConfigExtended configuration;
+        try {
+            configuration = DnsDiscoveryConfigExtended.createInstance(configurationFileReader.get());
+        } catch (final RuntimeException e) {
+            log.warn("{}: The changed configuration file '{}' is invalid, keeping the current configuration: {}",
+                    EXTENSION_NAME,
+                    configPath,
+                    e.getMessage());
+            return;
+        }
+        log.info("{}: The configuration file '{}' changed, applying the new configuration.",
+                EXTENSION_NAME,
+                configPath);
+        listener.accept(configuration);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (final IOException e) {
+                log.debug("{}: Could not close the configuration file watcher.", EXTENSION_NAME, e);
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+}
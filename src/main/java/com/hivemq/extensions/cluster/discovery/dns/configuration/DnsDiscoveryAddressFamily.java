@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns.configuration;
+
+/**
+ * The address family of the cluster nodes that are discovered by A/AAAA records.
+ */
+public enum DnsDiscoveryAddressFamily {
+
+    /**
+     * Only A records are queried.
+     */
+    IPV4_ONLY,
+
+    /**
+     * Only AAAA records are queried.
+     */
+    IPV6_ONLY,
+
+    /**
+     * A and AAAA records are queried concurrently, the IPv6 addresses are only used if there are no IPv4 addresses.
+     */
+    IPV4_PREFERRED,
+
+    /**
+     * A and AAAA records are queried concurrently, the IPv4 addresses are only used if there are no IPv6 addresses.
+     */
+    IPV6_PREFERRED,
+
+    /**
+     * A and AAAA records are queried concurrently and all addresses are used, the IPv4 addresses first.
+     */
+    DUAL
+}
@@ -30,6 +30,26 @@ class DnsDiscoveryConfigEnvironment {
     static final @NotNull String DISCOVERY_ADDRESS_ENV = "HIVEMQ_DNS_DISCOVERY_ADDRESS";
     static final @NotNull String DISCOVERY_TIMEOUT_ENV = "HIVEMQ_DNS_DISCOVERY_TIMEOUT";
     static final @NotNull String DISCOVERY_RELOAD_INTERVAL_ENV = "HIVEMQ_DNS_RELOAD_INTERVAL";
+    static final @NotNull String RECORD_TYPE_ENV = "HIVEMQ_DNS_RECORD_TYPE";
+    static final @NotNull String ADDRESS_FAMILY_ENV = "HIVEMQ_DNS_ADDRESS_FAMILY";
+    static final @NotNull String CACHE_MAX_TTL_ENV = "HIVEMQ_DNS_CACHE_MAX_TTL";
+    static final @NotNull String CACHE_NEGATIVE_TTL_ENV = "HIVEMQ_DNS_CACHE_NEGATIVE_TTL";
+    static final @NotNull String CACHE_REFRESH_AHEAD_ENV = "HIVEMQ_DNS_CACHE_REFRESH_AHEAD";
+    static final @NotNull String MAX_STALENESS_ENV = "HIVEMQ_DNS_MAX_STALENESS";
+    static final @NotNull String HEDGE_DELAY_ENV = "HIVEMQ_DNS_HEDGE_DELAY";
+    static final @NotNull String DISCOVERY_TIMEOUT_MILLIS_ENV = "HIVEMQ_DNS_DISCOVERY_TIMEOUT_MILLIS";
+    static final @NotNull String QUERY_TIMEOUT_ENV = "HIVEMQ_DNS_QUERY_TIMEOUT";
+    static final @NotNull String QUERY_RETRIES_ENV = "HIVEMQ_DNS_QUERY_RETRIES";
+    static final @NotNull String RETRY_BACKOFF_ENV = "HIVEMQ_DNS_RETRY_BACKOFF";
+    static final @NotNull String RELOAD_INTERVAL_MIN_ENV = "HIVEMQ_DNS_RELOAD_INTERVAL_MIN";
+    static final @NotNull String RELOAD_INTERVAL_MAX_ENV = "HIVEMQ_DNS_RELOAD_INTERVAL_MAX";
+    static final @NotNull String EDNS_PAYLOAD_SIZE_ENV = "HIVEMQ_DNS_EDNS_PAYLOAD_SIZE";
+    static final @NotNull String RELOAD_JITTER_ENV = "HIVEMQ_DNS_RELOAD_JITTER";
+    static final @NotNull String PROBE_MODE_ENV = "HIVEMQ_DNS_PROBE_MODE";
+    static final @NotNull String PROBE_TIMEOUT_ENV = "HIVEMQ_DNS_PROBE_TIMEOUT";
+    static final @NotNull String PROBE_CONCURRENCY_ENV = "HIVEMQ_DNS_PROBE_CONCURRENCY";
+    static final @NotNull String PROBE_CACHE_TTL_ENV = "HIVEMQ_DNS_PROBE_CACHE_TTL";
+    static final @NotNull String ZONE_ENV = "HIVEMQ_DNS_ZONE";
 
     @Nullable String getEnvDnsServerAddress() {
         return System.getenv(DNS_SERVER_ADDRESS);
@@ -46,4 +66,84 @@ class DnsDiscoveryConfigEnvironment {
     @Nullable String getEnvReloadInterval() {
         return System.getenv(DISCOVERY_RELOAD_INTERVAL_ENV);
     }
+
+    @Nullable String getEnvRecordType() {
+        return System.getenv(RECORD_TYPE_ENV);
+    }
+
+    @Nullable String getEnvAddressFamily() {
+        return System.getenv(ADDRESS_FAMILY_ENV);
+    }
+
+    @Nullable String getEnvCacheMaxTtl() {
+        return System.getenv(CACHE_MAX_TTL_ENV);
+    }
+
+    @Nullable String getEnvCacheNegativeTtl() {
+        return System.getenv(CACHE_NEGATIVE_TTL_ENV);
+    }
+
+    @Nullable String getEnvCacheRefreshAhead() {
+        return System.getenv(CACHE_REFRESH_AHEAD_ENV);
+    }
+
+    @Nullable String getEnvMaxStaleness() {
+        return System.getenv(MAX_STALENESS_ENV);
+    }
+
+    @Nullable String getEnvHedgeDelay() {
+        return System.getenv(HEDGE_DELAY_ENV);
+    }
+
+    @Nullable String getEnvResolutionTimeoutMillis() {
+        return System.getenv(DISCOVERY_TIMEOUT_MILLIS_ENV);
+    }
+
+    @Nullable String getEnvQueryTimeout() {
+        return System.getenv(QUERY_TIMEOUT_ENV);
+    }
+
+    @Nullable String getEnvQueryRetries() {
+        return System.getenv(QUERY_RETRIES_ENV);
+    }
+
+    @Nullable String getEnvRetryBackoff() {
+        return System.getenv(RETRY_BACKOFF_ENV);
+    }
+
+    @Nullable String getEnvReloadIntervalMin() {
+        return System.getenv(RELOAD_INTERVAL_MIN_ENV);
+    }
+
+    @Nullable String getEnvReloadIntervalMax() {
+        return System.getenv(RELOAD_INTERVAL_MAX_ENV);
+    }
+
+    @Nullable String getEnvEdnsPayloadSize() {
+        return System.getenv(EDNS_PAYLOAD_SIZE_ENV);
+    }
+
+    @Nullable String getEnvReloadJitter() {
+        return System.getenv(RELOAD_JITTER_ENV);
+    }
+
+    @Nullable String getEnvProbeMode() {
+        return System.getenv(PROBE_MODE_ENV);
+    }
+
+    @Nullable String getEnvProbeTimeout() {
+        return System.getenv(PROBE_TIMEOUT_ENV);
+    }
+
+    @Nullable String getEnvProbeConcurrency() {
+        return System.getenv(PROBE_CONCURRENCY_ENV);
+    }
+
+    @Nullable String getEnvProbeCacheTtl() {
+        return System.getenv(PROBE_CACHE_TTL_ENV);
+    }
+
+    @Nullable String getEnvZone() {
+        return System.getenv(ZONE_ENV);
+    }
 }
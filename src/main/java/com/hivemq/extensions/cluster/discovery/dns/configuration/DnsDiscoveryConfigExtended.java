@@ -22,7 +22,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 
 import static com.hivemq.extensions.cluster.discovery.dns.ExtensionConstants.EXTENSION_NAME;
 
@@ -39,10 +45,31 @@ public class DnsDiscoveryConfigExtended {
     private final @NotNull DnsDiscoveryConfigFile configFile;
     private final @NotNull DnsDiscoveryConfigEnvironment configEnvironment;
 
-    private @Nullable InetSocketAddress dnsServerAddress = null;
+    private @NotNull List<InetSocketAddress> dnsServerAddresses = List.of();
     private @Nullable String discoveryAddress = null;
+    private @NotNull List<String> discoveryAddresses = List.of();
     private int resolutionTimeout = 30;
     private int reloadInterval = 30;
+    private @NotNull DnsDiscoveryRecordType recordType = DnsDiscoveryRecordType.A;
+    private @NotNull DnsDiscoveryAddressFamily addressFamily = DnsDiscoveryAddressFamily.DUAL;
+    private int cacheMaxTtl = 0;
+    private int cacheNegativeTtl = 0;
+    private double cacheRefreshAhead = 0.8;
+    private int maxStaleness = 0;
+    private int hedgeDelay = 0;
+    private int resolutionTimeoutMillis = 0;
+    private int queryTimeout = 5000;
+    private int queryRetries = 0;
+    private int retryBackoff = 100;
+    private int reloadIntervalMin = 0;
+    private int reloadIntervalMax = 0;
+    private int ednsPayloadSize = 0;
+    private int reloadJitter = 0;
+    private @NotNull DnsDiscoveryProbeMode probeMode = DnsDiscoveryProbeMode.OFF;
+    private int probeTimeout = 1000;
+    private int probeConcurrency = 16;
+    private int probeCacheTtl = 10;
+    private @Nullable String zone = null;
 
     DnsDiscoveryConfigExtended(
             final @NotNull DnsDiscoveryConfigFile configFile,
@@ -58,14 +85,82 @@ public class DnsDiscoveryConfigExtended {
         extendedConfig.discoveryAddress();
         extendedConfig.resolutionTimeout();
         extendedConfig.reloadInterval();
+        extendedConfig.recordType();
+        extendedConfig.addressFamily();
+        extendedConfig.cacheMaxTtl();
+        extendedConfig.cacheNegativeTtl();
+        extendedConfig.cacheRefreshAhead();
+        extendedConfig.maxStaleness();
+        extendedConfig.hedgeDelay();
+        extendedConfig.resolutionTimeoutMillis();
+        extendedConfig.queryTimeout();
+        extendedConfig.queryRetries();
+        extendedConfig.retryBackoff();
+        extendedConfig.reloadIntervalMin();
+        extendedConfig.reloadIntervalMax();
+        extendedConfig.ednsPayloadSize();
+        extendedConfig.reloadJitter();
+        extendedConfig.probeMode();
+        extendedConfig.probeTimeout();
+        extendedConfig.probeConcurrency();
+        extendedConfig.probeCacheTtl();
+        extendedConfig.zone();
         return extendedConfig;
     }
 
+    /**
+     * Resolves an int setting from the environment variable, the properties file or the default, in this order. An
+     * environment variable that cannot be parsed falls back to the properties file, a value below the minimum fails the
+     * configuration.
+     */
+    private static int intValue(
+            final @Nullable String envValue,
+            final @NotNull String envName,
+            final @NotNull IntSupplier fileValue,
+            final @NotNull String label,
+            final int defaultValue,
+            final int minimum,
+            final @NotNull String property) {
+        if (envValue != null && !envValue.isBlank()) {
+            try {
+                return checkMinimum(Integer.parseInt(envValue.trim()), minimum, property);
+            } catch (final NumberFormatException e) {
+                log.error("{}: The {} from env {} could not be parsed to int. Fallback to the configuration file.",
+                        EXTENSION_NAME,
+                        label,
+                        envName);
+            }
+        }
+        final int value;
+        try {
+            value = fileValue.getAsInt();
+        } catch (final Exception e) {
+            log.error("{}: Could not read the {} from the properties file.", EXTENSION_NAME, label);
+            throw new ConfigurationException(e);
+        }
+        if (value != -1) {
+            return checkMinimum(value, minimum, property);
+        }
+        log.debug("{}: No {} was set in the configuration file or environment variable. Defaulting to {}.",
+                EXTENSION_NAME,
+                label,
+                defaultValue);
+        return defaultValue;
+    }
+
+    private static int checkMinimum(final int value, final int minimum, final @NotNull String property) {
+        if (value < minimum) {
+            throw new ConfigurationException(
+                    "Value '" + value + "' for property '" + property + "' must be at least " + minimum + ".");
+        }
+        return value;
+    }
+
     void dnsServerAddress() {
         final var envDnsServerAddress = configEnvironment.getEnvDnsServerAddress();
         if (envDnsServerAddress != null && !envDnsServerAddress.isBlank()) {
             try {
-                dnsServerAddress = processDnsServerAddress(envDnsServerAddress);
+                dnsServerAddresses = processDnsServerAddresses(envDnsServerAddress);
             } catch (final Exception e) {
                 log.error("{}: Could not read the DNS server address from the environment variable.", EXTENSION_NAME);
                 throw new ConfigurationException(e);
@@ -74,7 +169,7 @@ public class DnsDiscoveryConfigExtended {
             try {
                 final var propDnsServerAddress = configFile.getFileDnsServerAddress();
                 if (propDnsServerAddress != null && !propDnsServerAddress.isBlank()) {
-                    dnsServerAddress = processDnsServerAddress(propDnsServerAddress);
+                    dnsServerAddresses = processDnsServerAddresses(propDnsServerAddress);
                 } else {
                     log.debug("{}: No DNS server address was set in the configuration file or environment variable.",
                             EXTENSION_NAME);
@@ -86,6 +181,15 @@ public class DnsDiscoveryConfigExtended {
         }
     }
 
+    @NotNull List<InetSocketAddress> processDnsServerAddresses(final @NotNull String dnsServerAddresses) {
+        return Arrays.stream(dnsServerAddresses.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .map(this::processDnsServerAddress)
+                .distinct()
+                .collect(Collectors.toUnmodifiableList());
+    }
+
     @NotNull InetSocketAddress processDnsServerAddress(final @NotNull String dnsServerAddress) {
         if (dnsServerAddress.contains(":")) {
             final var address = dnsServerAddress.split(":")[0];
@@ -106,11 +210,13 @@ public class DnsDiscoveryConfigExtended {
         final var envDiscoveryAddress = configEnvironment.getEnvDiscoveryAddress();
         if (envDiscoveryAddress != null && !envDiscoveryAddress.isEmpty()) {
             discoveryAddress = envDiscoveryAddress;
+            discoveryAddresses = processDiscoveryAddresses(envDiscoveryAddress);
         } else {
             try {
                 final var propDiscoveryAddress = configFile.getFileDiscoveryAddress();
                 if (propDiscoveryAddress != null && !propDiscoveryAddress.isBlank()) {
                     discoveryAddress = propDiscoveryAddress;
+                    discoveryAddresses = processDiscoveryAddresses(propDiscoveryAddress);
                 } else {
                     log.warn("{}: No discovery address was set in the configuration file or environment variable.",
                             EXTENSION_NAME);
@@ -123,70 +229,358 @@ public class DnsDiscoveryConfigExtended {
     }
 
     void resolutionTimeout() {
-        final var envResolutionTimeout = configEnvironment.getEnvResolutionTimeout();
-        if (envResolutionTimeout != null && !envResolutionTimeout.isEmpty()) {
+        resolutionTimeout = intValue(configEnvironment.getEnvResolutionTimeout(),
+                DnsDiscoveryConfigEnvironment.DISCOVERY_TIMEOUT_ENV,
+                configFile::getFileResolutionTimeout,
+                "resolution timeout",
+                resolutionTimeout,
+                0,
+                "resolutionTimeout");
+    }
+
+    void reloadInterval() {
+        reloadInterval = intValue(configEnvironment.getEnvReloadInterval(),
+                DnsDiscoveryConfigEnvironment.DISCOVERY_RELOAD_INTERVAL_ENV,
+                configFile::getFileReloadInterval,
+                "reload interval",
+                reloadInterval,
+                1,
+                "reloadInterval");
+    }
+
+    void recordType() {
+        final var envRecordType = configEnvironment.getEnvRecordType();
+        if (envRecordType != null && !envRecordType.isBlank()) {
             try {
-                resolutionTimeout = Integer.parseInt(envResolutionTimeout);
-                return;
-            } catch (final NumberFormatException e) {
-                log.error(
-                        "{}: Resolution timeout from env {} could not be parsed to int. Fallback to configuration value 'resolutionTimeout'.",
-                        EXTENSION_NAME,
-                        DnsDiscoveryConfigEnvironment.DISCOVERY_TIMEOUT_ENV);
+                recordType = processRecordType(envRecordType);
+            } catch (final Exception e) {
+                log.error("{}: Could not read the record type from the environment variable.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
+            }
+        } else {
+            try {
+                final var propRecordType = configFile.getFileRecordType();
+                if (propRecordType != null && !propRecordType.isBlank()) {
+                    recordType = processRecordType(propRecordType);
+                } else {
+                    log.debug(
+                            "{}: No record type was set in the configuration file or environment variable. Defaulting to {}.",
+                            EXTENSION_NAME,
+                            recordType);
+                }
+            } catch (final Exception e) {
+                log.error("{}: Could not read the record type from the properties file.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
             }
         }
-        try {
-            final int propResolutionTimeout = configFile.getFileResolutionTimeout();
-            if (propResolutionTimeout != -1) {
-                resolutionTimeout = propResolutionTimeout;
-            } else {
-                log.debug(
-                        "{}: No resolution timeout was set in the configuration file or environment variable. Defaulting to {}.",
-                        EXTENSION_NAME,
-                        resolutionTimeout);
+    }
+
+    void addressFamily() {
+        final var envAddressFamily = configEnvironment.getEnvAddressFamily();
+        if (envAddressFamily != null && !envAddressFamily.isBlank()) {
+            try {
+                addressFamily = processAddressFamily(envAddressFamily);
+            } catch (final Exception e) {
+                log.error("{}: Could not read the address family from the environment variable.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
+            }
+        } else {
+            try {
+                final var propAddressFamily = configFile.getFileAddressFamily();
+                if (propAddressFamily != null && !propAddressFamily.isBlank()) {
+                    addressFamily = processAddressFamily(propAddressFamily);
+                } else {
+                    log.debug(
+                            "{}: No address family was set in the configuration file or environment variable. Defaulting to {}.",
+                            EXTENSION_NAME,
+                            addressFamily);
+                }
+            } catch (final Exception e) {
+                log.error("{}: Could not read the address family from the properties file.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
             }
-        } catch (final Exception e) {
-            log.error("{}: Could not read the resolution timeout from the properties file.", EXTENSION_NAME);
-            throw new ConfigurationException(e);
         }
     }
 
-    void reloadInterval() {
-        final var envReloadInterval = configEnvironment.getEnvReloadInterval();
-        if (envReloadInterval != null && !envReloadInterval.isBlank()) {
+    static @NotNull List<String> processDiscoveryAddresses(final @NotNull String discoveryAddress) {
+        return Arrays.stream(discoveryAddress.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .distinct()
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @NotNull DnsDiscoveryRecordType processRecordType(final @NotNull String recordType) {
+        return DnsDiscoveryRecordType.valueOf(recordType.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @NotNull DnsDiscoveryAddressFamily processAddressFamily(final @NotNull String addressFamily) {
+        return DnsDiscoveryAddressFamily.valueOf(addressFamily.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+
+    void cacheMaxTtl() {
+        cacheMaxTtl = intValue(configEnvironment.getEnvCacheMaxTtl(),
+                DnsDiscoveryConfigEnvironment.CACHE_MAX_TTL_ENV,
+                configFile::getFileCacheMaxTtl,
+                "cache max TTL",
+                cacheMaxTtl,
+                0,
+                "cacheMaxTtl");
+    }
+
+    void cacheNegativeTtl() {
+        cacheNegativeTtl = intValue(configEnvironment.getEnvCacheNegativeTtl(),
+                DnsDiscoveryConfigEnvironment.CACHE_NEGATIVE_TTL_ENV,
+                configFile::getFileCacheNegativeTtl,
+                "cache negative TTL",
+                cacheNegativeTtl,
+                0,
+                "cacheNegativeTtl");
+    }
+
+    void cacheRefreshAhead() {
+        final var envCacheRefreshAhead = configEnvironment.getEnvCacheRefreshAhead();
+        if (envCacheRefreshAhead != null && !envCacheRefreshAhead.isBlank()) {
             try {
-                reloadInterval = Integer.parseInt(envReloadInterval);
+                cacheRefreshAhead = processCacheRefreshAhead(Double.parseDouble(envCacheRefreshAhead));
                 return;
             } catch (final NumberFormatException e) {
                 log.error(
-                        "{}: Reload interval from env {} could not be parsed to int. Fallback to configuration value 'reloadInterval'.",
+                        "{}: Cache refresh ahead from env {} could not be parsed to double. Fallback to configuration value 'cacheRefreshAhead'.",
                         EXTENSION_NAME,
-                        DnsDiscoveryConfigEnvironment.DISCOVERY_RELOAD_INTERVAL_ENV);
+                        DnsDiscoveryConfigEnvironment.CACHE_REFRESH_AHEAD_ENV);
             }
         }
         try {
-            final var propReloadInterval = configFile.getFileReloadInterval();
-            if (propReloadInterval != -1) {
-                reloadInterval = propReloadInterval;
+            final var propCacheRefreshAhead = configFile.getFileCacheRefreshAhead();
+            if (propCacheRefreshAhead != -1) {
+                cacheRefreshAhead = processCacheRefreshAhead(propCacheRefreshAhead);
             } else {
                 log.debug(
-                        "{}: No reload interval was set in the configuration file or environment variable. Defaulting to {}.",
+                        "{}: No cache refresh ahead was set in the configuration file or environment variable. Defaulting to {}.",
                         EXTENSION_NAME,
-                        reloadInterval);
+                        cacheRefreshAhead);
             }
         } catch (final Exception e) {
-            log.error("{}: Could not read the reload interval from the properties file.", EXTENSION_NAME);
+            log.error("{}: Could not read the cache refresh ahead from the properties file.", EXTENSION_NAME);
             throw new ConfigurationException(e);
         }
     }
 
+    double processCacheRefreshAhead(final double cacheRefreshAhead) {
+        if (cacheRefreshAhead <= 0 || cacheRefreshAhead > 1) {
+            log.error("{}: The cache refresh ahead must be greater than 0 and at most 1. Taking default {}.",
+                    EXTENSION_NAME,
+                    this.cacheRefreshAhead);
+            return this.cacheRefreshAhead;
+        }
+        return cacheRefreshAhead;
+    }
+
+    void maxStaleness() {
+        maxStaleness = intValue(configEnvironment.getEnvMaxStaleness(),
+                DnsDiscoveryConfigEnvironment.MAX_STALENESS_ENV,
+                configFile::getFileMaxStaleness,
+                "max staleness",
+                maxStaleness,
+                0,
+                "maxStaleness");
+    }
+
+    void hedgeDelay() {
+        hedgeDelay = intValue(configEnvironment.getEnvHedgeDelay(),
+                DnsDiscoveryConfigEnvironment.HEDGE_DELAY_ENV,
+                configFile::getFileHedgeDelay,
+                "hedge delay",
+                hedgeDelay,
+                0,
+                "hedgeDelay");
+    }
+
+    void resolutionTimeoutMillis() {
+        resolutionTimeoutMillis = intValue(configEnvironment.getEnvResolutionTimeoutMillis(),
+                DnsDiscoveryConfigEnvironment.DISCOVERY_TIMEOUT_MILLIS_ENV,
+                configFile::getFileResolutionTimeoutMillis,
+                "resolution timeout in milliseconds",
+                resolutionTimeoutMillis,
+                0,
+                "resolutionTimeoutMillis");
+    }
+
+    void queryTimeout() {
+        queryTimeout = intValue(configEnvironment.getEnvQueryTimeout(),
+                DnsDiscoveryConfigEnvironment.QUERY_TIMEOUT_ENV,
+                configFile::getFileQueryTimeout,
+                "query timeout",
+                queryTimeout,
+                0,
+                "queryTimeout");
+    }
+
+    void queryRetries() {
+        queryRetries = intValue(configEnvironment.getEnvQueryRetries(),
+                DnsDiscoveryConfigEnvironment.QUERY_RETRIES_ENV,
+                configFile::getFileQueryRetries,
+                "query retries",
+                queryRetries,
+                0,
+                "queryRetries");
+    }
+
+    void retryBackoff() {
+        retryBackoff = intValue(configEnvironment.getEnvRetryBackoff(),
+                DnsDiscoveryConfigEnvironment.RETRY_BACKOFF_ENV,
+                configFile::getFileRetryBackoff,
+                "retry backoff",
+                retryBackoff,
+                0,
+                "retryBackoff");
+    }
+
+    void reloadIntervalMin() {
+        reloadIntervalMin = intValue(configEnvironment.getEnvReloadIntervalMin(),
+                DnsDiscoveryConfigEnvironment.RELOAD_INTERVAL_MIN_ENV,
+                configFile::getFileReloadIntervalMin,
+                "minimum reload interval",
+                reloadIntervalMin,
+                0,
+                "reloadIntervalMin");
+    }
+
+    void reloadIntervalMax() {
+        reloadIntervalMax = intValue(configEnvironment.getEnvReloadIntervalMax(),
+                DnsDiscoveryConfigEnvironment.RELOAD_INTERVAL_MAX_ENV,
+                configFile::getFileReloadIntervalMax,
+                "maximum reload interval",
+                reloadIntervalMax,
+                0,
+                "reloadIntervalMax");
+        // checked here as the minimum reload interval is read first
+        if (reloadIntervalMin > reloadIntervalMax) {
+            throw new ConfigurationException("Value '" + reloadIntervalMin + "' for property 'reloadIntervalMin' " +
+                    "must not exceed the value '" + reloadIntervalMax + "' for property 'reloadIntervalMax'.");
+        }
+    }
+
+    void ednsPayloadSize() {
+        ednsPayloadSize = intValue(configEnvironment.getEnvEdnsPayloadSize(),
+                DnsDiscoveryConfigEnvironment.EDNS_PAYLOAD_SIZE_ENV,
+                configFile::getFileEdnsPayloadSize,
+                "EDNS0 payload size",
+                ednsPayloadSize,
+                0,
+                "ednsPayloadSize");
+    }
+
+    void reloadJitter() {
+        reloadJitter = intValue(configEnvironment.getEnvReloadJitter(),
+                DnsDiscoveryConfigEnvironment.RELOAD_JITTER_ENV,
+                configFile::getFileReloadJitter,
+                "reload jitter",
+                reloadJitter,
+                0,
+                "reloadJitter");
+    }
+
+    void probeMode() {
+        final var envProbeMode = configEnvironment.getEnvProbeMode();
+        if (envProbeMode != null && !envProbeMode.isBlank()) {
+            try {
+                probeMode = processProbeMode(envProbeMode);
+            } catch (final Exception e) {
+                log.error("{}: Could not read the probe mode from the environment variable.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
+            }
+        } else {
+            try {
+                final var propProbeMode = configFile.getFileProbeMode();
+                if (propProbeMode != null && !propProbeMode.isBlank()) {
+                    probeMode = processProbeMode(propProbeMode);
+                } else {
+                    log.debug(
+                            "{}: No probe mode was set in the configuration file or environment variable. Defaulting to {}.",
+                            EXTENSION_NAME,
+                            probeMode);
+                }
+            } catch (final Exception e) {
+                log.error("{}: Could not read the probe mode from the properties file.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
+            }
+        }
+    }
+
+    @NotNull DnsDiscoveryProbeMode processProbeMode(final @NotNull String probeMode) {
+        return DnsDiscoveryProbeMode.valueOf(probeMode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    void probeTimeout() {
+        probeTimeout = intValue(configEnvironment.getEnvProbeTimeout(),
+                DnsDiscoveryConfigEnvironment.PROBE_TIMEOUT_ENV,
+                configFile::getFileProbeTimeout,
+                "probe timeout",
+                probeTimeout,
+                0,
+                "probeTimeout");
+    }
+
+    void probeConcurrency() {
+        probeConcurrency = intValue(configEnvironment.getEnvProbeConcurrency(),
+                DnsDiscoveryConfigEnvironment.PROBE_CONCURRENCY_ENV,
+                configFile::getFileProbeConcurrency,
+                "probe concurrency",
+                probeConcurrency,
+                1,
+                "probeConcurrency");
+    }
+
+    void probeCacheTtl() {
+        probeCacheTtl = intValue(configEnvironment.getEnvProbeCacheTtl(),
+                DnsDiscoveryConfigEnvironment.PROBE_CACHE_TTL_ENV,
+                configFile::getFileProbeCacheTtl,
+                "probe cache TTL",
+                probeCacheTtl,
+                0,
+                "probeCacheTtl");
+    }
+
+    void zone() {
+        final var envZone = configEnvironment.getEnvZone();
+        if (envZone != null && !envZone.isBlank()) {
+            zone = envZone.trim();
+        } else {
+            try {
+                final var propZone = configFile.getFileZone();
+                if (propZone != null && !propZone.isBlank()) {
+                    zone = propZone.trim();
+                } else {
+                    log.debug("{}: No zone was set in the configuration file or environment variable.",
+                            EXTENSION_NAME);
+                }
+            } catch (final Exception e) {
+                log.error("{}: Could not read the zone from the properties file.", EXTENSION_NAME);
+                throw new ConfigurationException(e);
+            }
+        }
+    }
+
     /**
-     * Getter for the DNS server address. Its value is either from an environment variable or a property configuration.
+     * Getter for the first DNS server address. Its value is either from an environment variable or a property
+     * configuration.
      *
      * @return String - the DNS server address
      */
     public @NotNull Optional<InetSocketAddress> getDnsServerAddress() {
-        return Optional.ofNullable(dnsServerAddress);
+        return dnsServerAddresses.stream().findFirst();
+    }
+
+    /**
+     * Getter for the DNS server addresses in the order they are queried. Its value is either from an environment
+     * variable or a property configuration.
+     *
+     * @return List - the DNS server addresses, empty if the system DNS servers are used
+     */
+    public @NotNull List<InetSocketAddress> getDnsServerAddresses() {
+        return dnsServerAddresses;
     }
 
     /**
@@ -198,6 +592,16 @@ public class DnsDiscoveryConfigExtended {
         return Optional.ofNullable(discoveryAddress);
     }
 
+    /**
+     * Getter for the discovery addresses, the comma separated names of the discovery address. Its value is either from
+     * an environment variable or a properties configuration.
+     *
+     * @return List - the discovery addresses, empty if no discovery address is set
+     */
+    public @NotNull List<String> getDiscoveryAddresses() {
+        return discoveryAddresses;
+    }
+
     /**
      * Getter for the discovery resolution timeout. Its value is either from an environment variable, a properties
      * configuration or its default setting.
@@ -217,4 +621,215 @@ public class DnsDiscoveryConfigExtended {
     public int getReloadInterval() {
         return reloadInterval;
     }
+
+    /**
+     * Getter for the type of DNS record that is used to discover the cluster nodes. Its value is either from an
+     * environment variable, a properties configuration or its default setting.
+     *
+     * @return DnsDiscoveryRecordType - the record type
+     */
+    public @NotNull DnsDiscoveryRecordType getRecordType() {
+        return recordType;
+    }
+
+    /**
+     * Getter for the address family of the cluster nodes that are discovered by A/AAAA records. Its value is either
+     * from an environment variable, a properties configuration or its default setting.
+     *
+     * @return DnsDiscoveryAddressFamily - the address family
+     */
+    public @NotNull DnsDiscoveryAddressFamily getAddressFamily() {
+        return addressFamily;
+    }
+
+    /**
+     * Getter for the maximum time in seconds a discovery answer is cached. The TTL of the DNS records is used, but
+     * bounded by this value. Its value is either from an environment variable, a properties configuration or its
+     * default setting (0 disables caching).
+     *
+     * @return int - the cache max TTL
+     */
+    public int getCacheMaxTtl() {
+        return cacheMaxTtl;
+    }
+
+    /**
+     * Getter for the time in seconds a negative discovery answer (NXDOMAIN or no records) is cached. Its value is
+     * either from an environment variable, a properties configuration or its default setting (0 disables negative
+     * caching).
+     *
+     * @return int - the cache negative TTL
+     */
+    public int getCacheNegativeTtl() {
+        return cacheNegativeTtl;
+    }
+
+    /**
+     * Getter for the fraction of the TTL after which a cached discovery answer is refreshed ahead of its expiry. Its
+     * value is either from an environment variable, a properties configuration or its default setting.
+     *
+     * @return double - the cache refresh ahead factor
+     */
+    public double getCacheRefreshAhead() {
+        return cacheRefreshAhead;
+    }
+
+    /**
+     * Getter for the maximum age in seconds of the last successfully resolved cluster nodes that are still provided
+     * while the DNS resolution fails. Its value is either from an environment variable, a properties configuration or
+     * its default setting (0 disables serving stale cluster nodes).
+     *
+     * @return int - the max staleness
+     */
+    public int getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * Getter for the delay in milliseconds after which a query that was not answered yet by the first DNS server is
+     * additionally sent to the next DNS server. Its value is either from an environment variable, a properties
+     * configuration or its default setting (0 disables hedged queries).
+     *
+     * @return int - the hedge delay
+     */
+    public int getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * Getter for the total time in milliseconds a DNS resolution (including all retries) may take. Its value is either
+     * from an environment variable, a properties configuration or the resolution timeout in seconds.
+     *
+     * @return long - the resolution timeout in milliseconds
+     */
+    public long getResolutionTimeoutMillis() {
+        return resolutionTimeoutMillis > 0 ? resolutionTimeoutMillis : TimeUnit.SECONDS.toMillis(resolutionTimeout);
+    }
+
+    /**
+     * Getter for the time in milliseconds a single DNS query to one DNS server may take. Its value is either from an
+     * environment variable, a properties configuration or its default setting.
+     *
+     * @return int - the query timeout
+     */
+    public int getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    /**
+     * Getter for the number of times a DNS query that timed out or failed on the transport is retried within the
+     * resolution timeout. Its value is either from an environment variable, a properties configuration or its default
+     * setting.
+     *
+     * @return int - the query retries
+     */
+    public int getQueryRetries() {
+        return queryRetries;
+    }
+
+    /**
+     * Getter for the initial backoff in milliseconds before a DNS query is retried. The backoff doubles with every
+     * retry and is jittered. Its value is either from an environment variable, a properties configuration or its
+     * default setting.
+     *
+     * @return int - the retry backoff
+     */
+    public int getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    /**
+     * Getter for the minimum reload interval in seconds of the adaptive reload interval, used right after the cluster
+     * nodes changed or the DNS resolution failed. Its value is either from an environment variable, a properties
+     * configuration or its default setting (0 disables the adaptive reload interval).
+     *
+     * @return int - the minimum reload interval
+     */
+    public int getReloadIntervalMin() {
+        return reloadIntervalMin;
+    }
+
+    /**
+     * Getter for the maximum reload interval in seconds of the adaptive reload interval, approached while the cluster
+     * nodes stay stable. Its value is either from an environment variable, a properties configuration or its default
+     * setting (0 disables the adaptive reload interval).
+     *
+     * @return int - the maximum reload interval
+     */
+    public int getReloadIntervalMax() {
+        return reloadIntervalMax;
+    }
+
+    /**
+     * Returns the UDP payload size in bytes advertised to the DNS server with an EDNS0 OPT record. 0 disables EDNS0,
+     * then DNS servers truncate UDP answers to 512 bytes and the query is retried over TCP.
+     *
+     * @return int - the EDNS0 payload size
+     */
+    public int getEdnsPayloadSize() {
+        return ednsPayloadSize;
+    }
+
+    /**
+     * Getter for the jitter in percent of the reload interval that is randomly added to or subtracted from each reload
+     * interval, so the cluster nodes do not query the DNS server in lockstep. Its value is either from an environment
+     * variable, a properties configuration or its default setting (0 disables the jitter).
+     *
+     * @return int - the reload jitter
+     */
+    public int getReloadJitter() {
+        return reloadJitter;
+    }
+
+    /**
+     * Getter for the probe mode, whether the discovered cluster nodes are probed for reachability with a TCP connect to
+     * their cluster port. Its value is either from an environment variable, a properties configuration or its default
+     * setting.
+     *
+     * @return DnsDiscoveryProbeMode - the probe mode
+     */
+    public @NotNull DnsDiscoveryProbeMode getProbeMode() {
+        return probeMode;
+    }
+
+    /**
+     * Getter for the timeout in milliseconds of a TCP reachability probe of a cluster node. Its value is either from an
+     * environment variable, a properties configuration or its default setting.
+     *
+     * @return int - the probe timeout
+     */
+    public int getProbeTimeout() {
+        return probeTimeout;
+    }
+
+    /**
+     * Getter for the maximum number of TCP reachability probes that run at the same time. Its value is either from an
+     * environment variable, a properties configuration or its default setting.
+     *
+     * @return int - the probe concurrency
+     */
+    public int getProbeConcurrency() {
+        return probeConcurrency;
+    }
+
+    /**
+     * Getter for the time in seconds the result of a TCP reachability probe is reused by later reloads. Its value is
+     * either from an environment variable, a properties configuration or its default setting (0 disables the cache).
+     *
+     * @return int - the probe cache TTL
+     */
+    public int getProbeCacheTtl() {
+        return probeCacheTtl;
+    }
+
+    /**
+     * Getter for the zone (e.g. the availability zone) of this cluster node. If it is set, the zones of the cluster
+     * nodes are read from the TXT records of the discovery addresses and the cluster nodes of the same zone are
+     * provided first. Its value is either from an environment variable or a properties configuration.
+     *
+     * @return String - the zone, {@code null} if zone-aware ordering is disabled
+     */
+    public @Nullable String getZone() {
+        return zone;
+    }
 }
@@ -16,23 +16,58 @@
 
 package com.hivemq.extensions.cluster.discovery.dns.configuration;
 
-import org.aeonbits.owner.Config;
 import org.jetbrains.annotations.Nullable;
 
-@Config.Sources("file:${configFile}")
-public interface DnsDiscoveryConfigFile extends Config {
+/**
+ * Values of the properties configuration file. Unset values are {@code null}, unset numbers are {@code -1}.
+ */
+public interface DnsDiscoveryConfigFile {
 
-    @Key("dnsServerAddress")
     @Nullable String getFileDnsServerAddress();
 
-    @Key("discoveryAddress")
     @Nullable String getFileDiscoveryAddress();
 
-    @Key("resolutionTimeout")
-    @DefaultValue("-1")
     int getFileResolutionTimeout();
 
-    @Key("reloadInterval")
-    @DefaultValue("-1")
     int getFileReloadInterval();
+
+    @Nullable String getFileRecordType();
+
+    @Nullable String getFileAddressFamily();
+
+    int getFileCacheMaxTtl();
+
+    int getFileCacheNegativeTtl();
+
+    double getFileCacheRefreshAhead();
+
+    int getFileMaxStaleness();
+
+    int getFileHedgeDelay();
+
+    int getFileResolutionTimeoutMillis();
+
+    int getFileQueryTimeout();
+
+    int getFileQueryRetries();
+
+    int getFileRetryBackoff();
+
+    int getFileReloadIntervalMin();
+
+    int getFileReloadIntervalMax();
+
+    int getFileEdnsPayloadSize();
+
+    int getFileReloadJitter();
+
+    @Nullable String getFileProbeMode();
+
+    int getFileProbeTimeout();
+
+    int getFileProbeConcurrency();
+
+    int getFileProbeCacheTtl();
+
+    @Nullable String getFileZone();
 }
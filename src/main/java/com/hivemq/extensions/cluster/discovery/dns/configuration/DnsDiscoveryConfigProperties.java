@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Properties;
+
+/**
+ * Typed values of the properties configuration file. All numbers are parsed and validated once on creation, a value
+ * that cannot be converted fails the whole file.
+ */
+final class DnsDiscoveryConfigProperties implements DnsDiscoveryConfigFile {
+
+    private final @Nullable String dnsServerAddress;
+    private final @Nullable String discoveryAddress;
+    private final int resolutionTimeout;
+    private final int reloadInterval;
+    private final @Nullable String recordType;
+    private final @Nullable String addressFamily;
+    private final int cacheMaxTtl;
+    private final int cacheNegativeTtl;
+    private final double cacheRefreshAhead;
+    private final int maxStaleness;
+    private final int hedgeDelay;
+    private final int resolutionTimeoutMillis;
+    private final int queryTimeout;
+    private final int queryRetries;
+    private final int retryBackoff;
+    private final int reloadIntervalMin;
+    private final int reloadIntervalMax;
+    private final int ednsPayloadSize;
+    private final int reloadJitter;
+    private final @Nullable String probeMode;
+    private final int probeTimeout;
+    private final int probeConcurrency;
+    private final int probeCacheTtl;
+    private final @Nullable String zone;
+
+    DnsDiscoveryConfigProperties(final @NotNull Properties properties) {
+        dnsServerAddress = properties.getProperty("dnsServerAddress");
+        discoveryAddress = properties.getProperty("discoveryAddress");
+        resolutionTimeout = intProperty(properties, "resolutionTimeout");
+        reloadInterval = intProperty(properties, "reloadInterval");
+        recordType = properties.getProperty("recordType");
+        addressFamily = properties.getProperty("addressFamily");
+        cacheMaxTtl = intProperty(properties, "cacheMaxTtl");
+        cacheNegativeTtl = intProperty(properties, "cacheNegativeTtl");
+        cacheRefreshAhead = doubleProperty(properties, "cacheRefreshAhead");
+        maxStaleness = intProperty(properties, "maxStaleness");
+        hedgeDelay = intProperty(properties, "hedgeDelay");
+        resolutionTimeoutMillis = intProperty(properties, "resolutionTimeoutMillis");
+        queryTimeout = intProperty(properties, "queryTimeout");
+        queryRetries = intProperty(properties, "queryRetries");
+        retryBackoff = intProperty(properties, "retryBackoff");
+        reloadIntervalMin = intProperty(properties, "reloadIntervalMin");
+        reloadIntervalMax = intProperty(properties, "reloadIntervalMax");
+        ednsPayloadSize = intProperty(properties, "ednsPayloadSize");
+        reloadJitter = intProperty(properties, "reloadJitter");
+        probeMode = properties.getProperty("probeMode");
+        probeTimeout = intProperty(properties, "probeTimeout");
+        probeConcurrency = intProperty(properties, "probeConcurrency");
+        probeCacheTtl = intProperty(properties, "probeCacheTtl");
+        zone = properties.getProperty("zone");
+    }
+
+    private static int intProperty(final @NotNull Properties properties, final @NotNull String key) {
+        final var value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new ConfigurationException("Cannot convert '" + value + "' to int for property '" + key + "'.");
+        }
+    }
+
+    private static double doubleProperty(final @NotNull Properties properties, final @NotNull String key) {
+        final var value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new ConfigurationException("Cannot convert '" + value + "' to double for property '" + key + "'.");
+        }
+    }
+
+    @Override
+    public @Nullable String getFileDnsServerAddress() {
+        return dnsServerAddress;
+    }
+
+    @Override
+    public @Nullable String getFileDiscoveryAddress() {
+        return discoveryAddress;
+    }
+
+    @Override
+    public int getFileResolutionTimeout() {
+        return resolutionTimeout;
+    }
+
+    @Override
+    public int getFileReloadInterval() {
+        return reloadInterval;
+    }
+
+    @Override
+    public @Nullable String getFileRecordType() {
+        return recordType;
+    }
+
+    @Override
+    public @Nullable String getFileAddressFamily() {
+        return addressFamily;
+    }
+
+    @Override
+    public int getFileCacheMaxTtl() {
+        return cacheMaxTtl;
+    }
+
+    @Override
+    public int getFileCacheNegativeTtl() {
+        return cacheNegativeTtl;
+    }
+
+    @Override
+    public double getFileCacheRefreshAhead() {
+        return cacheRefreshAhead;
+    }
+
+    @Override
+    public int getFileMaxStaleness() {
+        return maxStaleness;
+    }
+
+    @Override
+    public int getFileHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    @Override
+    public int getFileResolutionTimeoutMillis() {
+        return resolutionTimeoutMillis;
+    }
+
+    @Override
+    public int getFileQueryTimeout() {
+        return queryTimeout;
+    }
+
+    @Override
+    public int getFileQueryRetries() {
+        return queryRetries;
+    }
+
+    @Override
+    public int getFileRetryBackoff() {
+        return retryBackoff;
+    }
+
+    @Override
+    public int getFileReloadIntervalMin() {
+        return reloadIntervalMin;
+    }
+
+    @Override
+    public int getFileReloadIntervalMax() {
+        return reloadIntervalMax;
+    }
+
+    @Override
+    public int getFileEdnsPayloadSize() {
+        return ednsPayloadSize;
+    }
+
+    @Override
+    public int getFileReloadJitter() {
+        return reloadJitter;
+    }
+
+    @Override
+    public @Nullable String getFileProbeMode() {
+        return probeMode;
+    }
+
+    @Override
+    public int getFileProbeTimeout() {
+        return probeTimeout;
+    }
+
+    @Override
+    public int getFileProbeConcurrency() {
+        return probeConcurrency;
+    }
+
+    @Override
+    public int getFileProbeCacheTtl() {
+        return probeCacheTtl;
+    }
+
+    @Override
+    public @Nullable String getFileZone() {
+        return zone;
+    }
+}
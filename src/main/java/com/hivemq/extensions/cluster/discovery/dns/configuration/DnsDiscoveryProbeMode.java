@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns.configuration;
+
+/**
+ * Whether the discovered cluster nodes are probed for reachability with a TCP connect to their cluster port.
+ */
+public enum DnsDiscoveryProbeMode {
+
+    /**
+     * The cluster nodes are not probed, all discovered cluster nodes are provided.
+     */
+    OFF,
+
+    /**
+     * Only the reachable cluster nodes are provided.
+     */
+    FILTER,
+
+    /**
+     * All discovered cluster nodes are provided, the reachable ones first.
+     */
+    PRIORITIZE
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns.configuration;
+
+/**
+ * The type of DNS record that is used to discover the cluster nodes.
+ */
+public enum DnsDiscoveryRecordType {
+
+    /**
+     * Round-robin A (and AAAA) records, all nodes use the cluster port of this node.
+     */
+    A,
+
+    /**
+     * SRV records, every node uses the target host and port of its SRV record.
+     */
+    SRV
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveReloadIntervalTest {
+
+    private final @NotNull DnsDiscoveryConfigExtended configuration = mock();
+    private final @NotNull AdaptiveReloadInterval reloadInterval = new AdaptiveReloadInterval(configuration);
+
+    @BeforeEach
+    void setUp() {
+        when(configuration.getReloadInterval()).thenReturn(30);
+        when(configuration.getReloadIntervalMin()).thenReturn(5);
+        when(configuration.getReloadIntervalMax()).thenReturn(60);
+    }
+
+    @Test
+    void whenMembershipIsStable_thenIntervalGrowsToMaximum() {
+        assertThat(reloadInterval.get()).isEqualTo(5);
+
+        reloadInterval.onSuccess(true);
+        assertThat(reloadInterval.get()).isEqualTo(5);
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(10);
+        reloadInterval.onSuccess(false);
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(40);
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(60);
+    }
+
+    @Test
+    void whenMembershipChangesOrResolutionFails_thenIntervalDropsToMinimum() {
+        reloadInterval.onSuccess(true);
+        reloadInterval.onSuccess(false);
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(20);
+
+        reloadInterval.onSuccess(true);
+        assertThat(reloadInterval.get()).isEqualTo(5);
+
+        reloadInterval.onSuccess(false);
+        reloadInterval.onFailure();
+        assertThat(reloadInterval.get()).isEqualTo(5);
+    }
+
+    @Test
+    void whenBoundsAreNotSet_thenFixedIntervalIsUsed() {
+        when(configuration.getReloadIntervalMin()).thenReturn(0);
+
+        reloadInterval.onSuccess(false);
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(30);
+    }
+
+    @Test
+    void whenConfigurationIsUpdated_thenNewBoundsApply() {
+        reloadInterval.onSuccess(true);
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(10);
+
+        final DnsDiscoveryConfigExtended updatedConfiguration = mock();
+        when(updatedConfiguration.getReloadInterval()).thenReturn(120);
+        when(updatedConfiguration.getReloadIntervalMin()).thenReturn(15);
+        when(updatedConfiguration.getReloadIntervalMax()).thenReturn(240);
+        reloadInterval.updateConfiguration(updatedConfiguration);
+        assertThat(reloadInterval.get()).isEqualTo(15);
+
+        reloadInterval.onSuccess(false);
+        assertThat(reloadInterval.get()).isEqualTo(30);
+
+        when(updatedConfiguration.getReloadIntervalMin()).thenReturn(0);
+        assertThat(reloadInterval.get()).isEqualTo(120);
+    }
+
+    @Test
+    void whenJitterIsNotSet_thenDelaysAreTheReloadInterval() {
+        when(configuration.getReloadIntervalMin()).thenReturn(0);
+
+        assertThat(reloadInterval.nextDelayMillis()).isEqualTo(30_000);
+        assertThat(reloadInterval.firstDelayMillis(new ClusterNodeAddress("10.0.0.1", 7800))).isEqualTo(30_000);
+    }
+
+    @Test
+    void whenJitterIsSet_thenDelaysAreSpreadAroundTheReloadInterval() {
+        when(configuration.getReloadIntervalMin()).thenReturn(0);
+        when(configuration.getReloadJitter()).thenReturn(10);
+
+        final var delays = new HashSet<Long>();
+        for (var i = 0; i < 1000; i++) {
+            delays.add(reloadInterval.nextDelayMillis());
+        }
+        assertThat(delays).allSatisfy(delay -> assertThat(delay).isBetween(27_000L, 33_000L)).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void whenJitterIsTooLarge_thenItIsCapped() {
+        when(configuration.getReloadIntervalMin()).thenReturn(0);
+        when(configuration.getReloadJitter()).thenReturn(500);
+
+        for (var i = 0; i < 1000; i++) {
+            assertThat(reloadInterval.nextDelayMillis()).isBetween(15_000L, 45_000L);
+        }
+    }
+
+    @Test
+    void whenJitterIsSet_thenFirstDelayIsStablePhaseOfOwnAddress() {
+        when(configuration.getReloadIntervalMin()).thenReturn(0);
+        when(configuration.getReloadJitter()).thenReturn(10);
+
+        final var phases = new HashSet<Long>();
+        for (var i = 1; i <= 100; i++) {
+            final var ownAddress = new ClusterNodeAddress("10.0.0." + i, 7800);
+            final var phase = reloadInterval.firstDelayMillis(ownAddress);
+            assertThat(phase).isBetween(1_000L, 30_000L);
+            assertThat(reloadInterval.firstDelayMillis(new ClusterNodeAddress("10.0.0." + i, 7800))).isEqualTo(phase);
+            phases.add(phase / 3_000);
+        }
+        // neighbouring addresses land in (nearly) all tenths of the reload interval
+        assertThat(phases).hasSizeGreaterThanOrEqualTo(9);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DnsDiscoveryCacheTest {
+
+    private static final @NotNull String NAME = "tasks.hivemq";
+
+    private final @NotNull AtomicLong nanoTime = new AtomicLong();
+    private final @NotNull DnsDiscoveryCache cache = new DnsDiscoveryCache(60, 5, 0.8, nanoTime::get);
+
+    @Test
+    void whenAnswerIsCached_thenServedWithinTtl() {
+        final var addresses =
+                List.of(new InetSocketAddress("10.0.0.1", 7800), new InetSocketAddress("10.0.0.2", 7800));
+        cache.putAnswer(NAME, new DnsAnswer(addresses, 10));
+
+        advanceSeconds(9);
+        final var entry = cache.get(NAME);
+        assertThat(entry).isNotNull();
+        assertThat(entry.isNegative()).isFalse();
+        assertThat(entry.getAnswer()).isNotNull();
+        assertThat(entry.getAnswer().getAddresses()).containsExactlyElementsOf(addresses);
+
+        advanceSeconds(1);
+        assertThat(cache.get(NAME)).isNull();
+    }
+
+    @Test
+    void whenTtlExceedsMaxTtl_thenMaxTtlIsUsed() {
+        cache.putAnswer(NAME, new DnsAnswer(List.of(new InetSocketAddress("10.0.0.1", 7800)), 3600));
+
+        advanceSeconds(59);
+        assertThat(cache.get(NAME)).isNotNull();
+        advanceSeconds(1);
+        assertThat(cache.get(NAME)).isNull();
+    }
+
+    @Test
+    void whenTtlIsZero_thenNotCached() {
+        cache.putAnswer(NAME, new DnsAnswer(List.of(new InetSocketAddress("10.0.0.1", 7800)), 0));
+
+        assertThat(cache.get(NAME)).isNull();
+    }
+
+    @Test
+    void whenRefreshAheadPointIsReached_thenOnlyOneRefreshIsStarted() {
+        cache.putAnswer(NAME, new DnsAnswer(List.of(new InetSocketAddress("10.0.0.1", 7800)), 10));
+
+        advanceSeconds(7);
+        assertThat(cache.get(NAME).tryStartRefresh()).isFalse();
+
+        advanceSeconds(1);
+        assertThat(cache.get(NAME).tryStartRefresh()).isTrue();
+        assertThat(cache.get(NAME).tryStartRefresh()).isFalse();
+
+        cache.refreshFailed(NAME);
+        assertThat(cache.get(NAME).tryStartRefresh()).isTrue();
+    }
+
+    @Test
+    void whenNegativeAnswerIsCached_thenServedWithinNegativeTtl() {
+        cache.putNegative(NAME);
+
+        advanceSeconds(4);
+        final var entry = cache.get(NAME);
+        assertThat(entry).isNotNull();
+        assertThat(entry.isNegative()).isTrue();
+        assertThat(entry.getAnswer()).isNull();
+        assertThat(entry.tryStartRefresh()).isFalse();
+
+        advanceSeconds(1);
+        assertThat(cache.get(NAME)).isNull();
+    }
+
+    @Test
+    void whenCacheIsDisabled_thenNothingIsCached() {
+        final var disabledCache = new DnsDiscoveryCache(0, 0, 0.8, nanoTime::get);
+        disabledCache.putAnswer(NAME, new DnsAnswer(List.of(new InetSocketAddress("10.0.0.1", 7800)), 10));
+        disabledCache.putNegative("other.hivemq");
+
+        assertThat(disabledCache.isEnabled()).isFalse();
+        assertThat(disabledCache.get(NAME)).isNull();
+        assertThat(disabledCache.get("other.hivemq")).isNull();
+    }
+
+    private void advanceSeconds(final long seconds) {
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
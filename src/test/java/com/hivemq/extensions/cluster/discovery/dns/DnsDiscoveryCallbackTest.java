@@ -17,20 +17,55 @@
 package com.hivemq.extensions.cluster.discovery.dns;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.UniformReservoir;
 import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterDiscoveryInput;
 import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterDiscoveryOutput;
 import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryAddressFamily;
 import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryProbeMode;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryRecordType;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,22 +77,46 @@ class DnsDiscoveryCallbackTest {
 
     private final @NotNull ClusterNodeAddress cla = new ClusterNodeAddress("localhost", 1883);
 
+    private final @NotNull DnsDiscoveryConfigExtended configuration = mock();
+    private final @NotNull DnsDiscoveryMetrics metrics = mock();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong();
+
     private @NotNull DnsDiscoveryCallback dnsDiscoveryCallback;
 
+    @TempDir
+    private @NotNull Path tempDir;
+
     @BeforeEach
     void setUp() {
         when(input.getOwnAddress()).thenReturn(cla);
 
-        final var metrics = mock(DnsDiscoveryMetrics.class);
         when(metrics.getQuerySuccessCount()).thenReturn(new Counter());
+        when(metrics.getQueryFailedCount()).thenReturn(new Counter());
+        when(metrics.getMembershipAddedCount()).thenReturn(new Counter());
+        when(metrics.getMembershipRemovedCount()).thenReturn(new Counter());
+        when(metrics.getQuerySuccessCount(anyString())).thenReturn(new Counter());
+        when(metrics.getQueryFailedCount(anyString())).thenReturn(new Counter());
+        when(metrics.getQueryFailedCount(any(DnsFailureType.class))).thenReturn(new Counter());
+        when(metrics.getReloadTime()).thenReturn(new Timer());
+        when(metrics.getQueryTime()).thenReturn(new Timer());
+        when(metrics.getProcessingTime()).thenReturn(new Timer());
+        when(metrics.getAnswerSize()).thenReturn(new Histogram(new UniformReservoir()));
+        when(metrics.getQueryCoalescedCount()).thenReturn(new Counter());
+        when(metrics.getProbeUnreachableCount()).thenReturn(new Counter());
+        when(metrics.getMembershipSelfExcludedCount()).thenReturn(new Counter());
 
-        final var configuration = mock(DnsDiscoveryConfigExtended.class);
-        when(configuration.getDnsServerAddress()).thenReturn(Optional.empty());
-        when(configuration.getDiscoveryAddress()).thenReturn(Optional.of("172.16.16.1"));
-        when(configuration.getResolutionTimeout()).thenReturn(30);
+        when(configuration.getDnsServerAddresses()).thenReturn(List.of());
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.1"));
+        when(configuration.getResolutionTimeoutMillis()).thenReturn(30_000L);
         when(configuration.getReloadInterval()).thenReturn(60);
+        when(configuration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.OFF);
+
+        dnsDiscoveryCallback = new DnsDiscoveryCallback(configuration, metrics, nanoTime::get);
+    }
 
-        dnsDiscoveryCallback = new DnsDiscoveryCallback(configuration, metrics);
+    @AfterEach
+    void tearDown() {
+        dnsDiscoveryCallback.destroy(input);
     }
 
     @Test
@@ -76,4 +135,585 @@ class DnsDiscoveryCallbackTest {
         assertThat(capturedAddresses).containsExactly(new ClusterNodeAddress("172.16.16.1", 1883));
         assertThat(capturedAddresses.getFirst()).isEqualTo(new ClusterNodeAddress("172.16.16.1", 1883));
     }
+
+    @Test
+    void whenResolutionIsPending_thenInitAndReloadDoNotWait() throws Exception {
+        // a DNS server that never answers
+        try (final var dnsServer = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            final var dnsServerAddress =
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), dnsServer.getLocalPort());
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServerAddress));
+            when(configuration.getDiscoveryAddresses()).thenReturn(List.of("tasks.hivemq"));
+
+            final var start = System.nanoTime();
+            dnsDiscoveryCallback.init(input, output);
+            dnsDiscoveryCallback.reload(input, output);
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+
+            verify(output, never()).provideCurrentNodes(any());
+            verify(output, times(2)).setReloadInterval(DnsDiscoveryCallback.PENDING_RELOAD_INTERVAL);
+        }
+    }
+
+    @Test
+    void whenNodesOfLastRunAreStored_thenInitProvidesThemWhileResolutionIsPending() throws Exception {
+        final var snapshotFile = new NodeSnapshotFile(tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH));
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.9", 1883)), List.of("tasks.hivemq"));
+
+        initWithStoredNodes(snapshotFile);
+
+        verify(output).provideCurrentNodes(List.of(new ClusterNodeAddress("172.16.16.9", 1883)));
+        verify(output).setReloadInterval(DnsDiscoveryCallback.PENDING_RELOAD_INTERVAL);
+    }
+
+    @Test
+    void whenResolutionSucceeds_thenNodesAreStored() throws Exception {
+        final var snapshotFile = new NodeSnapshotFile(tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH));
+        dnsDiscoveryCallback.destroy(input);
+        dnsDiscoveryCallback =
+                new DnsDiscoveryCallback(configuration, metrics, DnsTransport.detect(), snapshotFile, nanoTime::get);
+
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        assertThat(snapshotFile.load()).satisfies(stored -> {
+            assertThat(stored.getNodes()).containsExactly(new ClusterNodeAddress("172.16.16.1", 1883));
+            assertThat(stored.getDiscoveryAddresses()).containsExactly("172.16.16.1");
+        });
+
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2"));
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        assertThat(snapshotFile.load()).satisfies(stored -> {
+            assertThat(stored.getNodes()).containsExactly(new ClusterNodeAddress("172.16.16.2", 1883));
+            assertThat(stored.getDiscoveryAddresses()).containsExactly("172.16.16.2");
+        });
+    }
+
+    @Test
+    void whenNodesAreStored_thenFileIsWrittenOffTheEventLoop() throws Exception {
+        final var writerThread = new AtomicReference<String>();
+        final var snapshotFile = new NodeSnapshotFile(tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH)) {
+            @Override
+            void store(
+                    final @NotNull List<ClusterNodeAddress> nodes,
+                    final @NotNull List<String> discoveryAddresses) {
+                writerThread.set(Thread.currentThread().getName());
+                super.store(nodes, discoveryAddresses);
+            }
+        };
+        dnsDiscoveryCallback.destroy(input);
+        dnsDiscoveryCallback =
+                new DnsDiscoveryCallback(configuration, metrics, DnsTransport.detect(), snapshotFile, nanoTime::get);
+
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        assertThat(writerThread.get()).isEqualTo("dns-discovery-snapshot-writer");
+    }
+
+    @Test
+    void whenNodesAreUnchangedWithMaxStaleness_thenFileIsOnlyTouched() throws Exception {
+        when(configuration.getMaxStaleness()).thenReturn(60);
+        final var currentTimeMillis = new AtomicLong(1_700_000_000_000L);
+        final var path = tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH);
+        final var snapshotFile = new NodeSnapshotFile(path, currentTimeMillis::get);
+        dnsDiscoveryCallback.destroy(input);
+        dnsDiscoveryCallback =
+                new DnsDiscoveryCallback(configuration, metrics, DnsTransport.detect(), snapshotFile, nanoTime::get);
+
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        final var content = Files.readString(path);
+        currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(30));
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        assertThat(Files.readString(path)).isEqualTo(content);
+        assertThat(snapshotFile.load()).satisfies(stored -> assertThat(stored.getAge()).isZero());
+    }
+
+    @Test
+    void whenNodesOfLastRunWereResolvedFromOtherAddresses_thenTheyAreNotProvided() throws Exception {
+        final var snapshotFile = new NodeSnapshotFile(tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH));
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.9", 1883)), List.of("other.hivemq"));
+
+        initWithStoredNodes(snapshotFile);
+
+        verify(output, never()).provideCurrentNodes(any());
+    }
+
+    @Test
+    void whenNodesOfLastRunAreOlderThanMaxStaleness_thenTheyAreNotProvided() throws Exception {
+        when(configuration.getMaxStaleness()).thenReturn(60);
+        final var currentTimeMillis = new AtomicLong(1_700_000_000_000L);
+        final var snapshotFile =
+                new NodeSnapshotFile(tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH), currentTimeMillis::get);
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.9", 1883)), List.of("tasks.hivemq"));
+        currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(61));
+
+        initWithStoredNodes(snapshotFile);
+
+        verify(output, never()).provideCurrentNodes(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenNodesOfLastRunAreWithinMaxStaleness_thenTheirAgeCountsFromStore() throws Exception {
+        when(configuration.getMaxStaleness()).thenReturn(60);
+        final var currentTimeMillis = new AtomicLong(1_700_000_000_000L);
+        final var snapshotFile =
+                new NodeSnapshotFile(tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH), currentTimeMillis::get);
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.9", 1883)), List.of("tasks.hivemq"));
+        currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(50));
+
+        initWithStoredNodes(snapshotFile);
+
+        verify(output).provideCurrentNodes(List.of(new ClusterNodeAddress("172.16.16.9", 1883)));
+        final ArgumentCaptor<Gauge<Long>> ageGauge = ArgumentCaptor.forClass(Gauge.class);
+        verify(metrics, times(2)).registerSnapshotAgeGauge(ageGauge.capture());
+        assertThat(ageGauge.getValue().getValue()).isEqualTo(50L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenOwnAddressIsDiscovered_thenItIsExcluded() {
+        final var selfExcludedCount = new Counter();
+        when(metrics.getMembershipSelfExcludedCount()).thenReturn(selfExcludedCount);
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("127.0.0.1", "172.16.16.1"));
+
+        dnsDiscoveryCallback.init(input, output);
+
+        final ArgumentCaptor<List<ClusterNodeAddress>> captor = ArgumentCaptor.forClass(List.class);
+        verify(output).provideCurrentNodes(captor.capture());
+        assertThat(captor.getValue()).containsExactly(new ClusterNodeAddress("172.16.16.1", 1883));
+        assertThat(selfExcludedCount.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenZoneIsSet_thenNodesOfSameZoneAreFirst() {
+        final var nodes = List.of(new ClusterNodeAddress("10.0.0.1", 7800),
+                new ClusterNodeAddress("10.0.0.2", 7800),
+                new ClusterNodeAddress("10.0.0.3", 7800),
+                new ClusterNodeAddress("10.0.0.4", 7800));
+        final var zones = List.of(Map.of("10.0.0.1", "eu-1a", "10.0.0.2", "eu-1b"), Map.of("10.0.0.4", "eu-1b"));
+
+        assertThat(DnsDiscoveryCallback.orderByZone(nodes, "eu-1b", zones)).containsExactly(nodes.get(1),
+                nodes.get(3),
+                nodes.get(0),
+                nodes.get(2));
+    }
+
+    @Test
+    void whenNoZonesAreKnown_thenOrderIsKept() {
+        final var nodes = List.of(new ClusterNodeAddress("10.0.0.1", 7800), new ClusterNodeAddress("10.0.0.2", 7800));
+
+        assertThat(DnsDiscoveryCallback.orderByZone(nodes, "eu-1b", List.of(Map.of()))).isSameAs(nodes);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenZoneIsSetWithoutZoneRecords_thenNodesAreProvided() {
+        when(configuration.getZone()).thenReturn("eu-1a");
+        when(configuration.getResolutionTimeoutMillis()).thenReturn(1_000L);
+
+        dnsDiscoveryCallback.init(input, output);
+
+        final ArgumentCaptor<List<ClusterNodeAddress>> captor = ArgumentCaptor.forClass(List.class);
+        verify(output).provideCurrentNodes(captor.capture());
+        assertThat(captor.getValue()).containsExactly(new ClusterNodeAddress("172.16.16.1", 1883));
+    }
+
+    @Test
+    void whenZoneIsSet_thenFirstRefreshIsOrderedByZone() throws Exception {
+        final var eventLoopGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsDiscoveryCallbackTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getDiscoveryAddresses()).thenReturn(List.of("tasks.hivemq"));
+            when(configuration.getRecordType()).thenReturn(DnsDiscoveryRecordType.A);
+            when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV4_ONLY);
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(configuration.getZone()).thenReturn("eu-1b");
+
+            dnsDiscoveryCallback.init(input, output);
+            dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+            dnsDiscoveryCallback.reload(input, output);
+
+            // the TXT records are answered after the A records, the first refresh waits for them anyway
+            verify(output).provideCurrentNodes(List.of(new ClusterNodeAddress("198.51.100.2", 1883),
+                    new ClusterNodeAddress("198.51.100.1", 1883)));
+        } finally {
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    void whenAnswerIsEmpty_thenQueryIsOnlyCountedAsFailed() throws Exception {
+        final var metricRegistry = new MetricRegistry();
+        final var eventLoopGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsDiscoveryCallbackTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getDiscoveryAddresses()).thenReturn(List.of("tasks.hivemq", "empty.hivemq"));
+            when(configuration.getRecordType()).thenReturn(DnsDiscoveryRecordType.A);
+            when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV4_ONLY);
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            dnsDiscoveryCallback.destroy(input);
+            dnsDiscoveryCallback =
+                    new DnsDiscoveryCallback(configuration, new DnsDiscoveryMetrics(metricRegistry), nanoTime::get);
+
+            dnsDiscoveryCallback.init(input, output);
+            dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+            assertThat(counts(metricRegistry, "tasks.hivemq")).containsExactly(1L, 0L);
+            assertThat(counts(metricRegistry, "empty.hivemq")).containsExactly(0L, 1L);
+            assertThat(metricRegistry.counter(MetricRegistry.name(DnsDiscoveryMetrics.HIVEMQ_PREFIX,
+                    DnsDiscoveryMetrics.DNS_DISCOVERY_EXTENSION,
+                    "query.failed.empty.count")).getCount()).isEqualTo(1);
+        } finally {
+            eventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenNodesDoNotChange_thenSameSortedListIsProvided() throws Exception {
+        final ArgumentCaptor<Gauge<Long>> generationCaptor = ArgumentCaptor.forClass(Gauge.class);
+        verify(metrics).registerMembershipGenerationGauge(generationCaptor.capture());
+        final var generation = generationCaptor.getValue();
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2", "172.16.16.1"));
+
+        dnsDiscoveryCallback.init(input, output);
+        // the DNS server rotated the records
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.1", "172.16.16.2"));
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+
+        final ArgumentCaptor<List<ClusterNodeAddress>> captor = ArgumentCaptor.forClass(List.class);
+        verify(output, times(2)).provideCurrentNodes(captor.capture());
+        assertThat(captor.getAllValues().get(0)).containsExactly(new ClusterNodeAddress("172.16.16.1", 1883),
+                new ClusterNodeAddress("172.16.16.2", 1883));
+        assertThat(captor.getAllValues().get(1)).isSameAs(captor.getAllValues().get(0));
+        assertThat(generation.getValue()).isEqualTo(1L);
+
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.1"));
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        assertThat(generation.getValue()).isEqualTo(2L);
+    }
+
+    @Test
+    void whenJitterIsSet_thenReloadIntervalIsSpread() {
+        when(configuration.getReloadJitter()).thenReturn(10);
+
+        dnsDiscoveryCallback.init(input, output);
+        for (var i = 0; i < 100; i++) {
+            dnsDiscoveryCallback.reload(input, output);
+        }
+
+        final var captor = ArgumentCaptor.forClass(Integer.class);
+        verify(output, times(101)).setReloadInterval(captor.capture());
+        assertThat(captor.getAllValues()).allSatisfy(interval -> assertThat(interval).isBetween(54, 66));
+        assertThat(Set.copyOf(captor.getAllValues())).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void whenRefreshIsInFlight_thenConcurrentRefreshesJoinIt() throws Exception {
+        final var coalescedCount = new Counter();
+        when(metrics.getQueryCoalescedCount()).thenReturn(coalescedCount);
+        // a DNS server that never answers
+        try (final var dnsServer = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            final var dnsServerAddress =
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), dnsServer.getLocalPort());
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServerAddress));
+            when(configuration.getDiscoveryAddresses()).thenReturn(List.of("tasks.hivemq"));
+
+            dnsDiscoveryCallback.init(input, output);
+            final var refresh = dnsDiscoveryCallback.refresh();
+
+            assertThat(refresh).isNotDone();
+            assertThat(dnsDiscoveryCallback.refresh()).isSameAs(refresh);
+            assertThat(coalescedCount.getCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void whenLoadingNodesThrows_thenItIsHandledAsFailedResolution() throws Exception {
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        when(configuration.getDiscoveryAddresses()).thenThrow(new IllegalStateException("broken configuration"));
+        final var failedRefresh = dnsDiscoveryCallback.refresh();
+
+        // handled like a failed resolution
+        failedRefresh.get(10, TimeUnit.SECONDS);
+
+        doReturn(List.of("172.16.16.2")).when(configuration).getDiscoveryAddresses();
+        final var refresh = dnsDiscoveryCallback.refresh();
+
+        assertThat(refresh).isNotSameAs(failedRefresh);
+        refresh.get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+        verify(output).provideCurrentNodes(List.of(new ClusterNodeAddress("172.16.16.2", 1883)));
+    }
+
+    @Test
+    void whenUpdatingSnapshotThrows_thenRefreshFailsAndNextRefreshRuns() throws Exception {
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        when(metrics.getReloadTime()).thenThrow(new IllegalStateException("broken metrics")).thenReturn(new Timer());
+        final var failedRefresh = dnsDiscoveryCallback.refresh();
+
+        assertThatThrownBy(() -> failedRefresh.get(10, TimeUnit.SECONDS)).hasRootCauseInstanceOf(
+                IllegalStateException.class);
+
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2"));
+        final var refresh = dnsDiscoveryCallback.refresh();
+
+        assertThat(refresh).isNotSameAs(failedRefresh);
+        refresh.get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+        verify(output).provideCurrentNodes(List.of(new ClusterNodeAddress("172.16.16.2", 1883)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenRefreshCompleted_thenReloadProvidesLatestSnapshot() throws Exception {
+        dnsDiscoveryCallback.init(input, output);
+        verify(output).setReloadInterval(60);
+
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2"));
+        dnsDiscoveryCallback.reload(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+
+        final ArgumentCaptor<List<ClusterNodeAddress>> captor = ArgumentCaptor.forClass(List.class);
+        verify(output, times(3)).provideCurrentNodes(captor.capture());
+        assertThat(captor.getAllValues()).containsExactly(List.of(new ClusterNodeAddress("172.16.16.1", 1883)),
+                List.of(new ClusterNodeAddress("172.16.16.1", 1883)),
+                List.of(new ClusterNodeAddress("172.16.16.2", 1883)));
+    }
+
+    @Test
+    void whenRefreshCompletes_thenReloadAndProcessingAreTimed() throws Exception {
+        final var reloadTime = new Timer();
+        final var processingTime = new Timer();
+        when(metrics.getReloadTime()).thenReturn(reloadTime);
+        when(metrics.getProcessingTime()).thenReturn(processingTime);
+        dnsDiscoveryCallback.init(input, output);
+
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        assertThat(reloadTime.getCount()).isEqualTo(2);
+        assertThat(processingTime.getCount()).isEqualTo(2);
+
+        failResolution();
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        assertThat(reloadTime.getCount()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenResolutionFails_thenLastKnownNodesAreProvidedUntilMaxStaleness() throws Exception {
+        when(configuration.getMaxStaleness()).thenReturn(60);
+        final ArgumentCaptor<Gauge<Long>> ageGauge = ArgumentCaptor.forClass(Gauge.class);
+        final ArgumentCaptor<Gauge<Integer>> staleGauge = ArgumentCaptor.forClass(Gauge.class);
+        verify(metrics).registerSnapshotAgeGauge(ageGauge.capture());
+        verify(metrics).registerSnapshotStaleGauge(staleGauge.capture());
+
+        dnsDiscoveryCallback.init(input, output);
+        assertThat(staleGauge.getValue().getValue()).isEqualTo(0);
+
+        failResolution();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+
+        verify(output, times(2)).provideCurrentNodes(List.of(new ClusterNodeAddress("172.16.16.1", 1883)));
+        assertThat(staleGauge.getValue().getValue()).isEqualTo(1);
+        assertThat(ageGauge.getValue().getValue()).isEqualTo(30L);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        dnsDiscoveryCallback.reload(input, output);
+        verify(output, times(2)).provideCurrentNodes(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenResolutionFails_thenLastSuccessAgeGrows() throws Exception {
+        final ArgumentCaptor<Gauge<Long>> lastSuccessAgeGauge = ArgumentCaptor.forClass(Gauge.class);
+        verify(metrics).registerLastSuccessAgeGauge(lastSuccessAgeGauge.capture());
+        final var timeoutCount = new Counter();
+        when(metrics.getQueryFailedCount(DnsFailureType.TIMEOUT)).thenReturn(timeoutCount);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(lastSuccessAgeGauge.getValue().getValue()).isEqualTo(10L);
+
+        dnsDiscoveryCallback.init(input, output);
+        assertThat(lastSuccessAgeGauge.getValue().getValue()).isEqualTo(0L);
+
+        failResolution();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        assertThat(lastSuccessAgeGauge.getValue().getValue()).isEqualTo(20L);
+        assertThat(timeoutCount.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenResolutionFailsWithoutMaxStaleness_thenNoNodesAreProvided() throws Exception {
+        dnsDiscoveryCallback.init(input, output);
+
+        failResolution();
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+
+        verify(output, times(1)).provideCurrentNodes(any());
+    }
+
+    @Test
+    void whenOneOfMultipleNamesFails_thenNodesOfOtherNamesAreProvided() throws Exception {
+        final var failedCount = new Counter();
+        when(metrics.getQueryFailedCount("tasks.hivemq")).thenReturn(failedCount);
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.1", "tasks.hivemq", "172.16.16.2"));
+        when(configuration.getResolutionTimeoutMillis()).thenReturn(0L);
+
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+
+        verify(output, atLeastOnce()).provideCurrentNodes(List.of(new ClusterNodeAddress("172.16.16.1", 1883),
+                new ClusterNodeAddress("172.16.16.2", 1883)));
+        assertThat(failedCount.getCount()).isPositive();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenConfigurationIsUpdated_thenNextRefreshAndReloadUseIt() throws Exception {
+        dnsDiscoveryCallback.init(input, output);
+        verify(output).setReloadInterval(60);
+
+        final DnsDiscoveryConfigExtended updatedConfiguration = mock();
+        when(updatedConfiguration.getDnsServerAddresses()).thenReturn(List.of());
+        when(updatedConfiguration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2"));
+        when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(30_000L);
+        when(updatedConfiguration.getReloadInterval()).thenReturn(120);
+        dnsDiscoveryCallback.updateConfiguration(updatedConfiguration);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+        dnsDiscoveryCallback.reload(input, output);
+
+        final ArgumentCaptor<List<ClusterNodeAddress>> captor = ArgumentCaptor.forClass(List.class);
+        verify(output, times(2)).provideCurrentNodes(captor.capture());
+        assertThat(captor.getValue()).containsExactly(new ClusterNodeAddress("172.16.16.2", 1883));
+        verify(output).setReloadInterval(120);
+    }
+
+    @Test
+    void whenReloadIntervalIsUpdated_thenNextRefreshIsRescheduled() throws Exception {
+        dnsDiscoveryCallback.init(input, output);
+        dnsDiscoveryCallback.refresh().get(10, TimeUnit.SECONDS);
+
+        final DnsDiscoveryConfigExtended updatedConfiguration = mock();
+        when(updatedConfiguration.getDnsServerAddresses()).thenReturn(List.of());
+        when(updatedConfiguration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2"));
+        when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(30_000L);
+        when(updatedConfiguration.getReloadInterval()).thenReturn(1);
+        when(updatedConfiguration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.OFF);
+        dnsDiscoveryCallback.updateConfiguration(updatedConfiguration);
+
+        // the refresh scheduled with the reload interval of 60 seconds is replaced by one within 1 second
+        verify(metrics, timeout(5_000)).getQuerySuccessCount("172.16.16.2");
+    }
+
+    @Test
+    void whenDiscoveryAddressesAreUpdated_thenMetricsOfRemovedOnesAreRemoved() {
+        dnsDiscoveryCallback.init(input, output);
+
+        final DnsDiscoveryConfigExtended updatedConfiguration = mock();
+        when(updatedConfiguration.getDnsServerAddresses()).thenReturn(List.of());
+        when(updatedConfiguration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.2"));
+        when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(30_000L);
+        when(updatedConfiguration.getReloadInterval()).thenReturn(60);
+        when(updatedConfiguration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.OFF);
+        dnsDiscoveryCallback.updateConfiguration(updatedConfiguration);
+
+        verify(metrics).retainDiscoveryAddresses(List.of("172.16.16.2"));
+    }
+
+    @Test
+    void whenDiscoveryAddressesAreUnchanged_thenMetricsAreKept() {
+        dnsDiscoveryCallback.init(input, output);
+
+        final DnsDiscoveryConfigExtended updatedConfiguration = mock();
+        when(updatedConfiguration.getDnsServerAddresses()).thenReturn(List.of());
+        when(updatedConfiguration.getDiscoveryAddresses()).thenReturn(List.of("172.16.16.1"));
+        when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(30_000L);
+        when(updatedConfiguration.getReloadInterval()).thenReturn(60);
+        when(updatedConfiguration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.OFF);
+        dnsDiscoveryCallback.updateConfiguration(updatedConfiguration);
+
+        verify(metrics, never()).retainDiscoveryAddresses(any());
+    }
+
+    /**
+     * Starts a callback with the given stored cluster nodes while the DNS resolution of 'tasks.hivemq' is pending.
+     */
+    private void initWithStoredNodes(final @NotNull NodeSnapshotFile snapshotFile) throws Exception {
+        dnsDiscoveryCallback.destroy(input);
+        dnsDiscoveryCallback =
+                new DnsDiscoveryCallback(configuration, metrics, DnsTransport.detect(), snapshotFile, nanoTime::get);
+        // a DNS server that never answers
+        try (final var dnsServer = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            final var dnsServerAddress =
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), dnsServer.getLocalPort());
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServerAddress));
+            when(configuration.getDiscoveryAddresses()).thenReturn(List.of("tasks.hivemq"));
+
+            dnsDiscoveryCallback.init(input, output);
+        }
+    }
+
+    /**
+     * @return the success and the failed count of the given discovery address
+     */
+    private static @NotNull List<Long> counts(
+            final @NotNull MetricRegistry metricRegistry,
+            final @NotNull String discoveryAddress) {
+        final var prefix = MetricRegistry.name(DnsDiscoveryMetrics.HIVEMQ_PREFIX,
+                DnsDiscoveryMetrics.DNS_DISCOVERY_EXTENSION,
+                "query",
+                discoveryAddress);
+        return List.of(metricRegistry.counter(prefix + ".success.count").getCount(),
+                metricRegistry.counter(prefix + ".failed.count").getCount());
+    }
+
+    /**
+     * Answers 'tasks.hivemq' with two A records and slow TXT records with their zones, 'empty.hivemq' with an A record
+     * without an address and other names without records.
+     */
+    private static @Nullable List<DnsRecord> answer(final @NotNull DnsQuestion question) {
+        if (question.type() == DnsRecordType.TXT) {
+            try {
+                Thread.sleep(200);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(TestDnsServer.txtRecord(question.name(), "198.51.100.1=eu-1a 198.51.100.2=eu-1b"));
+        }
+        if (question.type() == DnsRecordType.A && question.name().equals("tasks.hivemq.")) {
+            try {
+                return List.of(TestDnsServer.addressRecord(question.name(), InetAddress.getByName("198.51.100.1")),
+                        TestDnsServer.addressRecord(question.name(), InetAddress.getByName("198.51.100.2")));
+            } catch (final UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (question.type() == DnsRecordType.A && question.name().equals("empty.hivemq.")) {
+            return List.of(new DefaultDnsRawRecord(question.name(), DnsRecordType.A, 30, Unpooled.buffer()));
+        }
+        return List.of();
+    }
+
+    private void failResolution() {
+        // an unresolvable name that times out immediately
+        when(configuration.getDiscoveryAddresses()).thenReturn(List.of("tasks.hivemq"));
+        when(configuration.getResolutionTimeoutMillis()).thenReturn(0L);
+    }
 }
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hivemq.extensions.cluster.discovery.dns.DnsDiscoveryMetrics.DNS_DISCOVERY_EXTENSION;
@@ -64,6 +65,137 @@ class DnsDiscoveryMetricsTest {
         assertThat(counterFromRegistry.getCount()).isEqualTo(counter.getCount());
     }
 
+    @Test
+    void test_membershipCounters() {
+        metrics.getMembershipAddedCount().inc(3);
+        metrics.getMembershipRemovedCount().inc();
+        metrics.getMembershipSelfExcludedCount().inc(2);
+
+        final var addedName = MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.added.count");
+        final var removedName =
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.removed.count");
+        final var selfExcludedName =
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.self-excluded.count");
+        assertThat(metricRegistry.counter(addedName).getCount()).isEqualTo(3);
+        assertThat(metricRegistry.counter(removedName).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter(selfExcludedName).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_truncatedAndCoalescedCounters() {
+        metrics.getQueryTruncatedCount().inc();
+        metrics.getQueryCoalescedCount().inc(2);
+
+        final var truncatedName = MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.truncated.count");
+        final var coalescedName = MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.coalesced.count");
+        assertThat(metricRegistry.counter(truncatedName).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter(coalescedName).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_timersAndAnswerSizeHistogram() {
+        metrics.getReloadTime().update(3, TimeUnit.SECONDS);
+        metrics.getQueryTime().update(20, TimeUnit.MILLISECONDS);
+        metrics.getProcessingTime().update(1, TimeUnit.MILLISECONDS);
+        metrics.getAnswerSize().update(42);
+
+        final var timers = metricRegistry.getTimers();
+        assertThat(timers.get(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "reload.time"))
+                .getSnapshot()
+                .getMax()).isEqualTo(TimeUnit.SECONDS.toNanos(3));
+        assertThat(timers.get(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.time"))
+                .getCount()).isEqualTo(1);
+        assertThat(timers.get(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "processing.time"))
+                .getCount()).isEqualTo(1);
+        assertThat(metricRegistry.getHistograms()
+                .get(MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.answer-size"))
+                .getSnapshot()
+                .getMax()).isEqualTo(42);
+    }
+
+    @Test
+    void test_failureTypeCounters() {
+        metrics.getQueryFailedCount(DnsFailureType.TIMEOUT).inc();
+        metrics.getQueryFailedCount(DnsFailureType.SERVER_ERROR).inc(2);
+
+        final var counters = metricRegistry.getCounters();
+        assertThat(counters.get(MetricRegistry.name(HIVEMQ_PREFIX,
+                DNS_DISCOVERY_EXTENSION,
+                "query.failed.timeout.count")).getCount()).isEqualTo(1);
+        assertThat(counters.get(MetricRegistry.name(HIVEMQ_PREFIX,
+                DNS_DISCOVERY_EXTENSION,
+                "query.failed.server-error.count")).getCount()).isEqualTo(2);
+        // all failure types are registered up front
+        assertThat(counters.get(MetricRegistry.name(HIVEMQ_PREFIX,
+                DNS_DISCOVERY_EXTENSION,
+                "query.failed.nxdomain.count")).getCount()).isZero();
+        assertThat(counters.get(MetricRegistry.name(HIVEMQ_PREFIX,
+                DNS_DISCOVERY_EXTENSION,
+                "query.failed.network.count")).getCount()).isZero();
+        assertThat(counters.get(MetricRegistry.name(HIVEMQ_PREFIX,
+                DNS_DISCOVERY_EXTENSION,
+                "query.failed.empty.count")).getCount()).isZero();
+    }
+
+    @Test
+    void test_registerLastSuccessAgeGauge() {
+        metrics.registerLastSuccessAgeGauge(() -> 42L);
+
+        final var name = MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "last-success.age-seconds");
+        assertThat(metricRegistry.getGauges().get(name).getValue()).isEqualTo(42L);
+    }
+
+    @Test
+    void test_registerMembershipGenerationGauge() {
+        metrics.registerMembershipGenerationGauge(() -> 3L);
+
+        final var name = MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "membership.generation");
+        assertThat(metricRegistry.getGauges().get(name).getValue()).isEqualTo(3L);
+    }
+
+    @Test
+    void test_resolutionRequestCounterPerDiscoveryAddress() {
+        metrics.getQuerySuccessCount("zone-a.hivemq").inc();
+        metrics.getQueryFailedCount("zone-b.hivemq").inc();
+
+        final var successName =
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-a.hivemq.success.count");
+        final var failedName =
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-b.hivemq.failed.count");
+        assertThat(metricRegistry.counter(successName).getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter(failedName).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_retainDiscoveryAddresses() {
+        metrics.getQuerySuccessCount("zone-a.hivemq").inc();
+        metrics.getQueryFailedCount("zone-a.hivemq").inc();
+        metrics.getQuerySuccessCount("zone-b.hivemq").inc();
+
+        metrics.retainDiscoveryAddresses(List.of("zone-b.hivemq"));
+
+        assertThat(metricRegistry.getCounters()).doesNotContainKeys(
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-a.hivemq.success.count"),
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-a.hivemq.failed.count"));
+        final var retainedName =
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-b.hivemq.success.count");
+        assertThat(metricRegistry.getCounters().get(retainedName).getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_stop_removesDiscoveryAddressCounters() {
+        metrics.getQuerySuccessCount("zone-a.hivemq").inc();
+        metrics.getQueryFailedCount("zone-b.hivemq").inc();
+
+        metrics.stop();
+
+        assertThat(metricRegistry.getCounters()).doesNotContainKeys(
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-a.hivemq.success.count"),
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.zone-b.hivemq.failed.count"));
+        assertThat(metricRegistry.getCounters()).containsKey(
+                MetricRegistry.name(HIVEMQ_PREFIX, DNS_DISCOVERY_EXTENSION, "query.success.count"));
+    }
+
     @Test
     void test_registerAddressCountGauge() {
         final var addresses = new ArrayList<>(List.of(1));
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import io.netty.handler.codec.dns.DefaultDnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.resolver.dns.DnsNameResolverException;
+import io.netty.resolver.dns.DnsNameResolverTimeoutException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DnsFailureTypeTest {
+
+    private static final @NotNull InetSocketAddress DNS_SERVER = new InetSocketAddress("127.0.0.1", 53);
+
+    @Test
+    void whenResolutionTimesOut_thenTimeout() {
+        assertThat(DnsFailureType.of(new CompletionException(new TimeoutException()))).isEqualTo(
+                DnsFailureType.TIMEOUT);
+        assertThat(DnsFailureType.of(unknownHost(new DnsNameResolverTimeoutException(DNS_SERVER,
+                new DefaultDnsQuestion("tasks.hivemq", DnsRecordType.A),
+                "timed out")))).isEqualTo(DnsFailureType.TIMEOUT);
+    }
+
+    @Test
+    void whenResponseCodeIsNxdomain_thenNxdomain() {
+        assertThat(DnsFailureType.of(unknownHost(responseCode(DnsResponseCode.NXDOMAIN))))
+                .isEqualTo(DnsFailureType.NXDOMAIN);
+    }
+
+    @Test
+    void whenResponseCodeIsServfailOrRefused_thenServerError() {
+        assertThat(DnsFailureType.of(unknownHost(responseCode(DnsResponseCode.SERVFAIL))))
+                .isEqualTo(DnsFailureType.SERVER_ERROR);
+        assertThat(DnsFailureType.of(unknownHost(responseCode(DnsResponseCode.REFUSED))))
+                .isEqualTo(DnsFailureType.SERVER_ERROR);
+    }
+
+    @Test
+    void whenQueryCannotBeSent_thenNetwork() {
+        assertThat(DnsFailureType.of(new IOException("Network is unreachable"))).isEqualTo(DnsFailureType.NETWORK);
+        assertThat(DnsFailureType.of(unknownHost(new DnsNameResolverException(DNS_SERVER,
+                new DefaultDnsQuestion("tasks.hivemq", DnsRecordType.A),
+                "failed to send")))).isEqualTo(DnsFailureType.NETWORK);
+    }
+
+    @Test
+    void whenNoRecordsAreFound_thenEmpty() {
+        assertThat(DnsFailureType.of(new UnknownHostException("Failed to resolve 'tasks.hivemq'"))).isEqualTo(
+                DnsFailureType.EMPTY);
+    }
+
+    private static @NotNull Throwable responseCode(final @NotNull DnsResponseCode code) {
+        return new DnsNodeResolver.DnsResponseCodeException(code);
+    }
+
+    private static @NotNull Throwable unknownHost(final @NotNull Throwable cause) {
+        final var unknownHostException = new UnknownHostException("Failed to resolve 'tasks.hivemq'");
+        unknownHostException.initCause(cause);
+        return new CompletionException(unknownHostException);
+    }
+}
@@ -0,0 +1,595 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryAddressFamily;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryRecordType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverTimeoutException;
+import io.netty.util.ReferenceCountUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DnsNodeResolverTest {
+
+    private final @NotNull DnsDiscoveryConfigExtended configuration = mock();
+    private final @NotNull DnsDiscoveryMetrics metrics = new DnsDiscoveryMetrics(new MetricRegistry());
+
+    private @NotNull EventLoopGroup eventLoopGroup;
+    private @NotNull DnsNodeResolver nodeResolver;
+
+    @BeforeEach
+    void setUp() {
+        when(configuration.getDnsServerAddresses()).thenReturn(List.of());
+        when(configuration.getRecordType()).thenReturn(DnsDiscoveryRecordType.A);
+        when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.DUAL);
+        eventLoopGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+        nodeResolver = new DnsNodeResolver(eventLoopGroup, DnsTransport.NIO, configuration, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeResolver.close();
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    @Test
+    void whenResolveIpAddress_thenAddressWithPortIsReturned() throws Exception {
+        final var addresses = nodeResolver.resolve("172.16.16.1", 7800).get(10, TimeUnit.SECONDS);
+
+        assertThat(addresses).containsExactly(new InetSocketAddress("172.16.16.1", 7800));
+    }
+
+    @Test
+    void whenResolveMultipleTimes_thenResolverIsReused() throws Exception {
+        final var resolver = nodeResolver.getResolver();
+
+        nodeResolver.resolve("172.16.16.1", 7800).get(10, TimeUnit.SECONDS);
+        nodeResolver.resolve("172.16.16.1", 7800).get(10, TimeUnit.SECONDS);
+
+        assertThat(nodeResolver.getResolver()).isSameAs(resolver);
+    }
+
+    @Test
+    void whenDnsServerAddressChanges_thenResolverIsRebuilt() {
+        final var resolver = nodeResolver.getResolver();
+
+        when(configuration.getDnsServerAddresses()).thenReturn(List.of(new InetSocketAddress("127.0.0.1", 5353)));
+
+        final var rebuiltResolver = nodeResolver.getResolver();
+        assertThat(rebuiltResolver).isNotSameAs(resolver);
+        assertThat(nodeResolver.getResolver()).isSameAs(rebuiltResolver);
+    }
+
+    @Test
+    void whenConfigurationIsUpdatedWithoutResolverChanges_thenResolverIsKept() {
+        final var resolver = nodeResolver.getResolver();
+
+        final var updatedConfiguration = newConfiguration();
+        when(updatedConfiguration.getReloadInterval()).thenReturn(60);
+        when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+        nodeResolver.updateConfiguration(updatedConfiguration);
+
+        assertThat(nodeResolver.getResolver()).isSameAs(resolver);
+    }
+
+    @Test
+    void whenConfigurationIsUpdatedWithEdnsPayloadSize_thenResolverIsRebuilt() {
+        final var resolver = nodeResolver.getResolver();
+
+        final var updatedConfiguration = newConfiguration();
+        when(updatedConfiguration.getEdnsPayloadSize()).thenReturn(4096);
+        nodeResolver.updateConfiguration(updatedConfiguration);
+
+        assertThat(nodeResolver.getResolver()).isNotSameAs(resolver);
+    }
+
+    @Test
+    void whenConfigurationIsUpdatedWithCacheSettings_thenAnswersAreCached() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            final var updatedConfiguration = newConfiguration();
+            when(updatedConfiguration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(updatedConfiguration.getCacheMaxTtl()).thenReturn(60);
+            when(updatedConfiguration.getCacheRefreshAhead()).thenReturn(0.8);
+            nodeResolver.updateConfiguration(updatedConfiguration);
+
+            nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+            nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            // one A and one AAAA query, the second resolution is answered from the cache
+            assertThat(dnsServer.getQueryCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void whenSameNameIsResolvedConcurrently_thenQueriesAreShared() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+
+            // both resolutions start on the event loop, so the first one cannot complete before the second one starts
+            final var resolutions = eventLoopGroup.submit(() -> List.of(nodeResolver.resolve("tasks.hivemq", 7800),
+                    nodeResolver.resolve("tasks.hivemq", 7800))).get(3, TimeUnit.SECONDS);
+
+            for (final var resolution : resolutions) {
+                final var addresses = resolution.get(3, TimeUnit.SECONDS);
+                assertThat(addresses).containsExactly(new InetSocketAddress("10.0.0.1", 7800),
+                        new InetSocketAddress("fd00::1", 7800));
+            }
+            // one A and one AAAA query
+            assertThat(dnsServer.getQueryCount()).isEqualTo(2);
+            assertThat(metrics.getQueryCoalescedCount().getCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void whenResolverCannotBeBuilt_thenQueryFailsAndIsNotKeptInFlight() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            final var failBuild = new AtomicInteger(1);
+            final var failingNodeResolver =
+                    new DnsNodeResolver(eventLoopGroup, DnsTransport.NIO, configuration, metrics) {
+                        @Override
+                        @NotNull DnsNameResolver buildResolver(
+                                final @NotNull List<InetSocketAddress> dnsServerAddresses,
+                                final int queryTimeout,
+                                final int ednsPayloadSize) {
+                            if (failBuild.getAndDecrement() > 0) {
+                                throw new IllegalStateException("resolver factory failed");
+                            }
+                            return super.buildResolver(dnsServerAddresses, queryTimeout, ednsPayloadSize);
+                        }
+                    };
+            try {
+                final var failed = failingNodeResolver.resolve("tasks.hivemq", 7800);
+
+                assertThatThrownBy(() -> failed.get(3, TimeUnit.SECONDS)).hasRootCauseInstanceOf(
+                        IllegalStateException.class);
+
+                // the failed query is not joined by the next resolution of the same name
+                final var addresses = failingNodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+                assertThat(addresses).containsExactly(new InetSocketAddress("10.0.0.1", 7800),
+                        new InetSocketAddress("fd00::1", 7800));
+                assertThat(metrics.getQueryCoalescedCount().getCount()).isZero();
+            } finally {
+                failingNodeResolver.close();
+            }
+        }
+    }
+
+    @Test
+    void whenFirstDnsServerDoesNotAnswer_thenHedgedQueryIsAnsweredByNextServer() throws Exception {
+        // a DNS server that never answers
+        try (final var silentDnsServer = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+             final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            final var silentDnsServerAddress =
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), silentDnsServer.getLocalPort());
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(silentDnsServerAddress,
+                    dnsServer.getAddress()));
+            when(configuration.getHedgeDelay()).thenReturn(100);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).containsExactlyInAnyOrder(new InetSocketAddress("10.0.0.1", 7800),
+                    new InetSocketAddress("fd00::1", 7800));
+        }
+    }
+
+    @Test
+    void whenQueriesAreLost_thenTheyAreRetriedWithinResolutionTimeout() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(configuration.getQueryTimeout()).thenReturn(100);
+            when(configuration.getQueryRetries()).thenReturn(2);
+            when(configuration.getRetryBackoff()).thenReturn(10);
+            dnsServer.dropNextQueries(2);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).containsExactlyInAnyOrder(new InetSocketAddress("10.0.0.1", 7800),
+                    new InetSocketAddress("fd00::1", 7800));
+            assertThat(dnsServer.getQueryCount()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void whenQueryIsAnswered_thenRoundTripAndAnswerSizeAreRecorded() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+
+            nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            // one A and one AAAA query
+            assertThat(metrics.getQueryTime().getCount()).isEqualTo(2);
+            assertThat(metrics.getAnswerSize().getCount()).isEqualTo(2);
+            assertThat(metrics.getAnswerSize().getSnapshot().getMax()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void whenDnsServerRefusesQuery_thenFailureHasResponseCode() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            dnsServer.respondWith(DnsResponseCode.REFUSED);
+
+            final var refused = nodeResolver.resolve("tasks.hivemq", 7800);
+
+            assertThatThrownBy(() -> refused.get(3, TimeUnit.SECONDS)).satisfies(throwable -> {
+                assertThat(DnsNodeResolver.responseCode(throwable.getCause())).isEqualTo(DnsResponseCode.REFUSED);
+                assertThat(DnsFailureType.of(throwable.getCause())).isEqualTo(DnsFailureType.SERVER_ERROR);
+            });
+
+            dnsServer.respondWith(null);
+            final var nxdomain = nodeResolver.resolve("unknown.hivemq", 7800);
+
+            assertThatThrownBy(() -> nxdomain.get(3, TimeUnit.SECONDS)).satisfies(throwable -> assertThat(
+                    DnsFailureType.of(throwable.getCause())).isEqualTo(DnsFailureType.NXDOMAIN));
+        }
+    }
+
+    @Test
+    void whenAddressFamilyIsDual_thenIpv4AndIpv6AddressesAreResolved() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).containsExactly(new InetSocketAddress("10.0.0.1", 7800),
+                    new InetSocketAddress("fd00::1", 7800));
+        }
+    }
+
+    @Test
+    void whenAddressFamilyIsOnlyOne_thenOnlyItsRecordsAreQueried() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV6_ONLY);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).containsExactly(new InetSocketAddress("fd00::1", 7800));
+            assertThat(dnsServer.getQueryCount()).isOne();
+
+            when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV4_ONLY);
+
+            final var ipv4Addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(ipv4Addresses).containsExactly(new InetSocketAddress("10.0.0.1", 7800));
+            assertThat(dnsServer.getQueryCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void whenAddressFamilyIsPreferred_thenOtherFamilyIsOnlyUsedWithoutPreferredAddresses() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::ipv6OnlyAnswer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV6_PREFERRED);
+
+            assertThat(nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS)).containsExactly(
+                    new InetSocketAddress("fd00::1", 7800));
+
+            // an IPv6-only node is still discovered if IPv4 is preferred
+            when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV4_PREFERRED);
+
+            assertThat(nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS)).containsExactly(
+                    new InetSocketAddress("fd00::1", 7800));
+            // both record types are queried at once
+            assertThat(dnsServer.getQueryCount()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void whenUdpAnswerIsTruncated_thenFullAnswerIsResolvedOverTcp() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::manyRecords)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            dnsServer.truncateAbove(28);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).hasSize(300).doesNotHaveDuplicates();
+            assertThat(dnsServer.getTcpQueryCount()).isOne();
+            assertThat(metrics.getQueryTruncatedCount().getCount()).isOne();
+            assertThat(metrics.getAnswerSize().getSnapshot().getMax()).isEqualTo(300);
+        }
+    }
+
+    @Test
+    void whenUdpAnswerFits_thenTcpIsNotUsed() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::manyRecords)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            // the records of the test server are not compressed, about 28 bytes per record
+            when(configuration.getEdnsPayloadSize()).thenReturn(16384);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).hasSize(300);
+            assertThat(dnsServer.getTcpQueryCount()).isZero();
+            assertThat(metrics.getQueryTruncatedCount().getCount()).isZero();
+        }
+    }
+
+    @Test
+    void whenQueryIsLostWithoutRetries_thenResolutionFails() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup, DnsNodeResolverTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(configuration.getQueryTimeout()).thenReturn(100);
+            dnsServer.dropNextQueries(2);
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800);
+
+            assertThatThrownBy(() -> addresses.get(3, TimeUnit.SECONDS)).hasRootCauseInstanceOf(
+                    DnsNameResolverTimeoutException.class);
+        }
+    }
+
+    @Test
+    void whenBackoffIsCalculated_thenItGrowsExponentiallyWithJitter() {
+        for (var i = 0; i < 100; i++) {
+            assertThat(DnsNodeResolver.backoffMillis(0, 100)).isBetween(50L, 100L);
+            assertThat(DnsNodeResolver.backoffMillis(3, 100)).isBetween(400L, 800L);
+        }
+    }
+
+    @Test
+    void whenPrimaryAnswersAfterHedge_thenHedgedAnswerWinsAndPrimaryAnswerIsReleased() throws Exception {
+        final var primary = new CompletableFuture<List<DnsRecord>>();
+        final var hedgedRecord = TestDnsServer.addressRecord("tasks.hivemq.", InetAddress.getByName("10.0.0.2"));
+
+        final var result = DnsNodeResolver.hedge(primary,
+                () -> CompletableFuture.completedFuture(List.of(hedgedRecord)),
+                10,
+                eventLoopGroup);
+
+        assertThat(result.get(3, TimeUnit.SECONDS)).containsExactly(hedgedRecord);
+        final var primaryRecord = (DefaultDnsRawRecord) TestDnsServer.addressRecord("tasks.hivemq.",
+                InetAddress.getByName("10.0.0.1"));
+        primary.complete(List.of(primaryRecord));
+        assertThat(primaryRecord.refCnt()).isZero();
+        ReferenceCountUtil.release(hedgedRecord);
+    }
+
+    @Test
+    void whenPrimaryAnswersWithinHedgeDelay_thenNoHedgedQueryIsSent() throws Exception {
+        final var primaryRecord = TestDnsServer.addressRecord("tasks.hivemq.", InetAddress.getByName("10.0.0.1"));
+        final var hedgedQueries = new AtomicInteger();
+
+        final var result = DnsNodeResolver.hedge(CompletableFuture.completedFuture(List.of(primaryRecord)), () -> {
+            hedgedQueries.incrementAndGet();
+            return new CompletableFuture<>();
+        }, 10, eventLoopGroup);
+
+        assertThat(result.get(3, TimeUnit.SECONDS)).containsExactly(primaryRecord);
+        Thread.sleep(50);
+        assertThat(hedgedQueries).hasValue(0);
+        ReferenceCountUtil.release(primaryRecord);
+    }
+
+    @Test
+    void whenDecodeServices_thenOrderedByPriorityAndWeight() {
+        final var message = Unpooled.buffer();
+        final var records = List.<DnsRecord>of(srvRecord(message, 20, 100, 7801, "node-3.hivemq."),
+                srvRecord(message, 10, 10, 7802, "node-2.hivemq."),
+                srvRecord(message, 10, 50, 7800, "node-1.hivemq."));
+
+        final var srvRecords = DnsNodeResolver.decodeServices(records);
+
+        assertThat(srvRecords).extracting(srvRecord -> srvRecord.target)
+                .containsExactly("node-1.hivemq.", "node-2.hivemq.", "node-3.hivemq.");
+        assertThat(srvRecords).extracting(srvRecord -> srvRecord.port).containsExactly(7800, 7802, 7801);
+        // all records are released, only the reference of the message itself is left
+        assertThat(message.refCnt()).isOne();
+        message.release();
+    }
+
+    @Test
+    void whenDecodeServicesWithCompressedTarget_thenTargetIsDecompressed() {
+        final var message = Unpooled.buffer();
+        // the name the compressed target points to, as it would be in the question section
+        writeName(message, "_hivemq._tcp.example.com.");
+        final var content = message.retainedDuplicate();
+        final var offset = message.writerIndex();
+        message.writeShort(0).writeShort(0).writeShort(7800);
+        message.writeByte(6).writeBytes("node-1".getBytes(StandardCharsets.US_ASCII));
+        message.writeShort(0xC000);
+        content.setIndex(offset, message.writerIndex());
+
+        final var srvRecords = DnsNodeResolver.decodeServices(List.of(new DefaultDnsRawRecord("_hivemq._tcp",
+                DnsRecordType.SRV,
+                30,
+                content)));
+
+        assertThat(srvRecords).singleElement()
+                .satisfies(srvRecord -> assertThat(srvRecord.target).isEqualTo("node-1._hivemq._tcp.example.com."));
+        message.release();
+    }
+
+    @Test
+    void whenDecodeServicesWithoutTarget_thenFail() {
+        final var records = List.<DnsRecord>of(srvRecord(Unpooled.buffer(), 0, 0, 7800, "."));
+
+        assertThatThrownBy(() -> DnsNodeResolver.decodeServices(records)).hasRootCauseMessage(
+                "No SRV target is available");
+    }
+
+    @Test
+    void whenResolveZones_thenZonesOfTxtRecordsAreReturned() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup,
+                question -> question.type() == DnsRecordType.TXT ?
+                        List.of(TestDnsServer.txtRecord(question.name(), "10.0.0.1=eu-1a 10.0.0.2=eu-1b", "fd00::1=eu-1a")) :
+                        null)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+
+            final var zones = nodeResolver.resolveZones("tasks.hivemq").get(3, TimeUnit.SECONDS);
+
+            assertThat(zones).containsOnly(Map.entry("10.0.0.1", "eu-1a"),
+                    Map.entry("10.0.0.2", "eu-1b"),
+                    Map.entry(InetAddress.getByName("fd00::1").getHostAddress(), "eu-1a"));
+        }
+    }
+
+    @Test
+    void whenZonesAreResolvedAgainWithinTtl_thenCachedTxtAnswerIsUsed() throws Exception {
+        try (final var dnsServer = TestDnsServer.start(eventLoopGroup,
+                question -> question.type() == DnsRecordType.TXT ?
+                        List.of(TestDnsServer.txtRecord(question.name(), "10.0.0.1=eu-1a")) :
+                        null)) {
+            final var updatedConfiguration = newConfiguration();
+            when(updatedConfiguration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+            when(updatedConfiguration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+            when(updatedConfiguration.getCacheMaxTtl()).thenReturn(60);
+            when(updatedConfiguration.getCacheRefreshAhead()).thenReturn(0.8);
+            nodeResolver.updateConfiguration(updatedConfiguration);
+
+            // both resolutions start on the event loop, so the second one joins the query of the first one
+            final var resolutions = eventLoopGroup.submit(() -> List.of(nodeResolver.resolveZones("tasks.hivemq"),
+                    nodeResolver.resolveZones("tasks.hivemq"))).get(3, TimeUnit.SECONDS);
+            for (final var resolution : resolutions) {
+                assertThat(resolution.get(3, TimeUnit.SECONDS)).containsOnly(Map.entry("10.0.0.1", "eu-1a"));
+            }
+            final var zones = nodeResolver.resolveZones("tasks.hivemq").get(3, TimeUnit.SECONDS);
+
+            assertThat(zones).containsOnly(Map.entry("10.0.0.1", "eu-1a"));
+            assertThat(dnsServer.getQueryCount()).isEqualTo(1);
+            assertThat(metrics.getQueryCoalescedCount().getCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void whenDecodeZonesWithInvalidEntries_thenTheyAreIgnored() {
+        final var record = TestDnsServer.txtRecord("tasks.hivemq.", "node-1=eu-1a 10.0.0.1= =eu-1b v=spf1 10.0.0.2=eu-1b");
+
+        assertThat(DnsNodeResolver.decodeZones(List.of(record))).containsOnly(Map.entry("10.0.0.2", "eu-1b"));
+        assertThat(record.refCnt()).isZero();
+    }
+
+    @Test
+    void whenResolveZonesOfIpLiteral_thenNoQueryIsSent() throws Exception {
+        assertThat(nodeResolver.resolveZones("10.0.0.1").get(3, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    private static @NotNull DnsDiscoveryConfigExtended newConfiguration() {
+        final DnsDiscoveryConfigExtended configuration = mock();
+        when(configuration.getDnsServerAddresses()).thenReturn(List.of());
+        when(configuration.getRecordType()).thenReturn(DnsDiscoveryRecordType.A);
+        when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.DUAL);
+        return configuration;
+    }
+
+    private static @NotNull DnsRecord srvRecord(
+            final @NotNull ByteBuf message,
+            final int priority,
+            final int weight,
+            final int port,
+            final @NotNull String target) {
+        final var offset = message.writerIndex();
+        message.writeShort(priority).writeShort(weight).writeShort(port);
+        writeName(message, target);
+        return new DefaultDnsRawRecord("_hivemq._tcp.example.com.",
+                DnsRecordType.SRV,
+                30,
+                message.retainedDuplicate().setIndex(offset, message.writerIndex()));
+    }
+
+    private static @Nullable List<DnsRecord> answer(final @NotNull DnsQuestion question) {
+        if (!question.name().equals("tasks.hivemq.")) {
+            return null;
+        }
+        try {
+            final var address = question.type() == DnsRecordType.A ? "10.0.0.1" : "fd00::1";
+            return List.of(TestDnsServer.addressRecord(question.name(), InetAddress.getByName(address)));
+        } catch (final UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static @Nullable List<DnsRecord> ipv6OnlyAnswer(final @NotNull DnsQuestion question) {
+        if (question.type() == DnsRecordType.A) {
+            return List.of();
+        }
+        return answer(question);
+    }
+
+    private static @Nullable List<DnsRecord> manyRecords(final @NotNull DnsQuestion question) {
+        if (!question.name().equals("tasks.hivemq.")) {
+            return null;
+        }
+        if (question.type() != DnsRecordType.A) {
+            return List.of();
+        }
+        final var records = new ArrayList<DnsRecord>();
+        for (var i = 0; i < 300; i++) {
+            records.add(new DefaultDnsRawRecord(question.name(),
+                    DnsRecordType.A,
+                    30,
+                    Unpooled.wrappedBuffer(new byte[]{10, 0, (byte) (i >> 8), (byte) i})));
+        }
+        return records;
+    }
+
+    private static void writeName(final @NotNull ByteBuf message, final @NotNull String name) {
+        for (final var label : name.split("\\.")) {
+            if (!label.isEmpty()) {
+                message.writeByte(label.length()).writeBytes(label.getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+        message.writeByte(0);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.codahale.metrics.MetricRegistry;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryAddressFamily;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryRecordType;
+import io.netty.channel.epoll.Epoll;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DnsTransportTest {
+
+    @Test
+    void whenEpollIsAvailable_thenEpollIsDetected() {
+        assertThat(DnsTransport.detect()).isEqualTo(Epoll.isAvailable() ? DnsTransport.EPOLL : DnsTransport.NIO);
+    }
+
+    @ParameterizedTest
+    @EnumSource(DnsTransport.class)
+    void whenResolvingWithTransport_thenAddressesAreResolved(final @NotNull DnsTransport transport) throws Exception {
+        assumeTrue(transport != DnsTransport.EPOLL || Epoll.isAvailable(), "epoll is not available");
+        final var eventLoopGroup = transport.newEventLoopGroup(1);
+        final DnsDiscoveryConfigExtended configuration = mock();
+        when(configuration.getRecordType()).thenReturn(DnsDiscoveryRecordType.A);
+        when(configuration.getAddressFamily()).thenReturn(DnsDiscoveryAddressFamily.IPV4_ONLY);
+        when(configuration.getResolutionTimeoutMillis()).thenReturn(5_000L);
+        final var nodeResolver = new DnsNodeResolver(eventLoopGroup,
+                transport,
+                configuration,
+                new DnsDiscoveryMetrics(new MetricRegistry()));
+        final var serverEventLoopGroup = DnsTransport.NIO.newEventLoopGroup(1);
+        try (final var dnsServer = TestDnsServer.start(serverEventLoopGroup, DnsTransportTest::answer)) {
+            when(configuration.getDnsServerAddresses()).thenReturn(List.of(dnsServer.getAddress()));
+
+            final var addresses = nodeResolver.resolve("tasks.hivemq", 7800).get(3, TimeUnit.SECONDS);
+
+            assertThat(addresses).containsExactly(new InetSocketAddress("10.0.0.1", 7800));
+        } finally {
+            nodeResolver.close();
+            eventLoopGroup.shutdownGracefully();
+            serverEventLoopGroup.shutdownGracefully();
+        }
+    }
+
+    private static @Nullable List<DnsRecord> answer(final @NotNull DnsQuestion question) {
+        if (!question.name().equals("tasks.hivemq.") || question.type() != DnsRecordType.A) {
+            return null;
+        }
+        try {
+            return List.of(TestDnsServer.addressRecord(question.name(), InetAddress.getByName("10.0.0.1")));
+        } catch (final UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MembershipDeltaTest {
+
+    private static final @NotNull ClusterNodeAddress NODE_1 = new ClusterNodeAddress("10.0.0.1", 7800);
+    private static final @NotNull ClusterNodeAddress NODE_2 = new ClusterNodeAddress("10.0.0.2", 7800);
+    private static final @NotNull ClusterNodeAddress NODE_3 = new ClusterNodeAddress("10.0.0.3", 7800);
+
+    @Test
+    void whenNodesChange_thenAddedRemovedAndUnchangedAreReported() {
+        final var delta = MembershipDelta.of(List.of(NODE_1, NODE_2), List.of(NODE_3, NODE_2));
+
+        assertThat(delta.getAdded()).containsExactly(NODE_3);
+        assertThat(delta.getRemoved()).containsExactly(NODE_1);
+        assertThat(delta.getUnchanged()).containsExactly(NODE_2);
+        assertThat(delta.isEmpty()).isFalse();
+    }
+
+    @Test
+    void whenNodesAreReordered_thenDeltaIsEmpty() {
+        final var delta = MembershipDelta.of(List.of(NODE_1, NODE_2, NODE_3), List.of(NODE_3, NODE_1, NODE_2));
+
+        assertThat(delta.isEmpty()).isTrue();
+        assertThat(delta.getUnchanged()).containsExactly(NODE_3, NODE_1, NODE_2);
+    }
+
+    @Test
+    void whenNoPreviousNodes_thenAllNodesAreAdded() {
+        final var delta = MembershipDelta.of(List.of(), List.of(NODE_1, NODE_2));
+
+        assertThat(delta.getAdded()).containsExactly(NODE_1, NODE_2);
+        assertThat(delta.getRemoved()).isEmpty();
+        assertThat(delta.getUnchanged()).isEmpty();
+    }
+
+    @Test
+    void whenThousandsOfNodes_thenDeltaIsCalculated() {
+        final var previous = nodes(0, 10_000);
+        final var current = nodes(100, 10_100);
+
+        final var delta = MembershipDelta.of(previous, current);
+
+        assertThat(delta.getAdded()).containsExactlyElementsOf(nodes(10_000, 10_100));
+        assertThat(delta.getRemoved()).containsExactlyElementsOf(nodes(0, 100));
+        assertThat(delta.getUnchanged()).hasSize(9_900);
+    }
+
+    @Test
+    void whenDeltaIsModified_thenFail() {
+        final var delta = MembershipDelta.of(List.of(NODE_1), List.of(NODE_2));
+
+        assertThatThrownBy(() -> delta.getAdded().add(NODE_3)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> delta.getRemoved().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static @NotNull List<ClusterNodeAddress> nodes(final int from, final int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> new ClusterNodeAddress("10.0." + (i / 256) + "." + (i % 256), 7800))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.codahale.metrics.Counter;
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryConfigExtended;
+import com.hivemq.extensions.cluster.discovery.dns.configuration.DnsDiscoveryProbeMode;
+import io.netty.channel.EventLoopGroup;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NodeProberTest {
+
+    private final @NotNull DnsDiscoveryConfigExtended configuration = mock();
+    private final @NotNull DnsDiscoveryMetrics metrics = mock();
+    private final @NotNull Counter unreachableCount = new Counter();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong();
+
+    private @NotNull EventLoopGroup eventLoopGroup;
+    private @NotNull ServerSocket serverSocket;
+    private @NotNull ClusterNodeAddress reachableNode;
+    private @NotNull ClusterNodeAddress unreachableNode;
+    private @NotNull NodeProber nodeProber;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(configuration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.FILTER);
+        when(configuration.getProbeTimeout()).thenReturn(1000);
+        when(configuration.getProbeConcurrency()).thenReturn(16);
+        when(configuration.getProbeCacheTtl()).thenReturn(10);
+        when(metrics.getProbeUnreachableCount()).thenReturn(unreachableCount);
+
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        reachableNode = new ClusterNodeAddress("127.0.0.1", serverSocket.getLocalPort());
+        // a port that was just free, connects are refused right away
+        try (final var closedSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            unreachableNode = new ClusterNodeAddress("127.0.0.1", closedSocket.getLocalPort());
+        }
+
+        eventLoopGroup = DnsTransport.NIO.newEventLoopGroup(1);
+        nodeProber = new NodeProber(eventLoopGroup, DnsTransport.NIO, configuration, metrics, nanoTime::get);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        serverSocket.close();
+        eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void whenProbingIsOff_thenAllNodesAreProvidedWithoutProbing() throws Exception {
+        when(configuration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.OFF);
+
+        final var nodes = List.of(unreachableNode, reachableNode);
+        assertThat(nodeProber.probe(nodes).get(10, TimeUnit.SECONDS)).isSameAs(nodes);
+        assertThat(unreachableCount.getCount()).isZero();
+    }
+
+    @Test
+    void whenFilter_thenOnlyReachableNodesAreProvided() throws Exception {
+        assertThat(nodeProber.probe(List.of(unreachableNode, reachableNode)).get(10, TimeUnit.SECONDS))
+                .containsExactly(reachableNode);
+        assertThat(unreachableCount.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenPrioritize_thenReachableNodesAreProvidedFirst() throws Exception {
+        when(configuration.getProbeMode()).thenReturn(DnsDiscoveryProbeMode.PRIORITIZE);
+
+        assertThat(nodeProber.probe(List.of(unreachableNode, reachableNode)).get(10, TimeUnit.SECONDS))
+                .containsExactly(reachableNode, unreachableNode);
+    }
+
+    @Test
+    void whenConcurrencyIsLimited_thenAllNodesAreProbed() throws Exception {
+        when(configuration.getProbeConcurrency()).thenReturn(1);
+        final var nodes = new ArrayList<ClusterNodeAddress>();
+        for (var i = 0; i < 5; i++) {
+            nodes.add(new ClusterNodeAddress("127.0.0." + (i + 2), unreachableNode.getPort()));
+        }
+        nodes.add(reachableNode);
+
+        assertThat(nodeProber.probe(nodes).get(10, TimeUnit.SECONDS)).containsExactly(reachableNode);
+        assertThat(unreachableCount.getCount()).isEqualTo(5);
+    }
+
+    @Test
+    void whenProbedRecently_thenCachedResultIsUsed() throws Exception {
+        assertThat(nodeProber.probe(List.of(reachableNode)).get(10, TimeUnit.SECONDS)).containsExactly(reachableNode);
+        serverSocket.close();
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertThat(nodeProber.probe(List.of(reachableNode, unreachableNode)).get(10, TimeUnit.SECONDS))
+                .containsExactly(reachableNode);
+        assertThat(unreachableCount.getCount()).isEqualTo(1);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(nodeProber.probe(List.of(reachableNode)).get(10, TimeUnit.SECONDS)).containsExactly(reachableNode);
+        assertThat(unreachableCount.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void whenFilterAndNoNodeIsReachable_thenAllNodesAreProvided() throws Exception {
+        final var otherUnreachableNode = new ClusterNodeAddress("127.0.0.2", unreachableNode.getPort());
+        final var nodes = List.of(unreachableNode, otherUnreachableNode);
+
+        assertThat(nodeProber.probe(nodes).get(10, TimeUnit.SECONDS)).containsExactly(unreachableNode,
+                otherUnreachableNode);
+        assertThat(unreachableCount.getCount()).isEqualTo(2);
+    }
+}
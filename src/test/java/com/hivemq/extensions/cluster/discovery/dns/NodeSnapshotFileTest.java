@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NodeSnapshotFileTest {
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    private final @NotNull AtomicLong currentTimeMillis = new AtomicLong(1_700_000_000_000L);
+
+    private @NotNull Path path;
+    private @NotNull NodeSnapshotFile snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        path = tempDir.resolve(NodeSnapshotFile.SNAPSHOT_PATH);
+        snapshotFile = new NodeSnapshotFile(path, currentTimeMillis::get);
+    }
+
+    @Test
+    void whenNodesAreStored_thenTheyAreLoaded() {
+        final var nodes = List.of(new ClusterNodeAddress("172.16.16.1", 7800),
+                new ClusterNodeAddress("fd00:0:0:0:0:0:0:1", 7800));
+
+        snapshotFile.store(nodes, List.of("tasks.hivemq", "other.hivemq"));
+
+        final var stored = snapshotFile.load();
+        assertThat(stored).isNotNull();
+        assertThat(stored.getNodes()).isEqualTo(nodes);
+        assertThat(stored.getDiscoveryAddresses()).containsExactly("tasks.hivemq", "other.hivemq");
+    }
+
+    @Test
+    void whenNodesAreLoadedLater_thenAgeCountsFromStore() {
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.1", 7800)), List.of("tasks.hivemq"));
+        currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(90));
+
+        final var stored = snapshotFile.load();
+        assertThat(stored).isNotNull();
+        assertThat(stored.getAge()).isEqualTo(TimeUnit.SECONDS.toMillis(90));
+    }
+
+    @Test
+    void whenNodesAreConfirmed_thenAgeCountsFromConfirmationWithoutRewrite() throws Exception {
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.1", 7800)), List.of("tasks.hivemq"));
+        final var content = Files.readString(path);
+        currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(90));
+
+        snapshotFile.touch();
+        currentTimeMillis.addAndGet(TimeUnit.SECONDS.toMillis(10));
+
+        final var stored = snapshotFile.load();
+        assertThat(stored).isNotNull();
+        assertThat(stored.getAge()).isEqualTo(TimeUnit.SECONDS.toMillis(10));
+        assertThat(Files.readString(path)).isEqualTo(content);
+    }
+
+    @Test
+    void whenNodesAreStoredAgain_thenFileIsReplaced() throws Exception {
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.1", 7800)), List.of("tasks.hivemq"));
+        snapshotFile.store(List.of(new ClusterNodeAddress("172.16.16.2", 7800)), List.of("tasks.hivemq"));
+
+        final var stored = snapshotFile.load();
+        assertThat(stored).isNotNull();
+        assertThat(stored.getNodes()).containsExactly(new ClusterNodeAddress("172.16.16.2", 7800));
+        try (final var files = Files.list(path.getParent())) {
+            assertThat(files).containsExactly(path);
+        }
+    }
+
+    @Test
+    void whenFileDoesNotExist_thenNoNodesAreLoaded() {
+        assertThat(snapshotFile.load()).isNull();
+    }
+
+    @Test
+    void whenFileIsCorrupt_thenNoNodesAreLoaded() throws Exception {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path,
+                "# written-at: 1700000000000\n# discovery-addresses: tasks.hivemq\n172.16.16.1:7800\n172.16.16.2\n");
+
+        assertThat(snapshotFile.load()).isNull();
+    }
+
+    @Test
+    void whenFileHasNoTimeAndDiscoveryAddresses_thenNoNodesAreLoaded() throws Exception {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "172.16.16.1:7800\n");
+
+        assertThat(snapshotFile.load()).isNull();
+    }
+}
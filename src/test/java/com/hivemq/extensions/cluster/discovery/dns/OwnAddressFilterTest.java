@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import com.hivemq.extension.sdk.api.services.cluster.parameter.ClusterNodeAddress;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OwnAddressFilterTest {
+
+    private final @NotNull ClusterNodeAddress ownAddress = new ClusterNodeAddress("10.0.0.1", 7800);
+
+    private final @NotNull AtomicInteger localAddressLookups = new AtomicInteger();
+    private final @NotNull AtomicLong nanoTime = new AtomicLong();
+
+    private final @NotNull OwnAddressFilter ownAddressFilter = new OwnAddressFilter(() -> {
+        localAddressLookups.incrementAndGet();
+        return Set.of(address("127.0.0.1"), address("10.0.0.2"), address("fd00::2"));
+    }, nanoTime::get);
+
+    @Test
+    void whenOwnClusterAddressIsDiscovered_thenItIsRemoved() {
+        final var addresses = List.of(new InetSocketAddress(address("10.0.0.1"), 7800),
+                new InetSocketAddress(address("10.0.0.3"), 7800));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).containsExactly(addresses.get(1));
+    }
+
+    @Test
+    void whenLocalInterfaceAddressesAreDiscovered_thenTheyAreRemoved() {
+        final var addresses = List.of(new InetSocketAddress(address("10.0.0.3"), 7800),
+                new InetSocketAddress(address("10.0.0.2"), 7800),
+                new InetSocketAddress(address("fd00::2"), 7800),
+                new InetSocketAddress(address("10.0.0.4"), 7800));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).containsExactly(addresses.get(0),
+                addresses.get(3));
+    }
+
+    @Test
+    void whenLocalAddressHasOtherPort_thenItIsKept() {
+        final var addresses = List.of(new InetSocketAddress(address("10.0.0.2"), 7801));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isSameAs(addresses);
+    }
+
+    @Test
+    void whenNoOwnAddressIsDiscovered_thenSameListIsReturned() {
+        final var addresses = List.of(new InetSocketAddress(address("10.0.0.3"), 7800));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isSameAs(addresses);
+    }
+
+    @Test
+    void whenIpv4MappedAddressIsDiscovered_thenItIsComparedAsIpv4() throws Exception {
+        final var mapped = InetAddress.getByAddress(new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, -1, -1, 10, 0, 0, 2});
+        final var addresses = List.of(new InetSocketAddress(mapped, 7800));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isEmpty();
+        assertThat(OwnAddressFilter.normalize(mapped)).isEqualTo(address("10.0.0.2"));
+    }
+
+    @Test
+    void whenIpv4CompatibleAddressIsNormalized_thenItIsKept() {
+        final var address = address("::10.0.0.2");
+
+        assertThat(OwnAddressFilter.normalize(address)).isSameAs(address);
+    }
+
+    @Test
+    void whenFilteredWithinTtl_thenLocalAddressesAreListedOnce() {
+        final var addresses = List.of(new InetSocketAddress(address("10.0.0.2"), 7800));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isEmpty();
+        nanoTime.set(OwnAddressFilter.LOCAL_ADDRESSES_TTL_NANOS - 1);
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isEmpty();
+        assertThat(localAddressLookups).hasValue(1);
+
+        nanoTime.set(OwnAddressFilter.LOCAL_ADDRESSES_TTL_NANOS);
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isEmpty();
+        assertThat(localAddressLookups).hasValue(2);
+    }
+
+    @Test
+    void whenOwnAddressChanges_thenCachedAddressesAreNotUsed() {
+        final var addresses = List.of(new InetSocketAddress(address("10.0.0.5"), 7800));
+
+        assertThat(ownAddressFilter.filter(addresses, ownAddress)).isSameAs(addresses);
+        assertThat(ownAddressFilter.filter(addresses, new ClusterNodeAddress("10.0.0.5", 7800))).isEmpty();
+        assertThat(localAddressLookups).hasValue(2);
+    }
+
+    @Test
+    void whenNetworkInterfacesAreUsed_thenLoopbackIsRemoved() {
+        final var addresses = List.of(new InetSocketAddress(InetAddress.getLoopbackAddress(), 7800));
+
+        assertThat(new OwnAddressFilter().filter(addresses, ownAddress)).isEmpty();
+    }
+
+    private static @NotNull InetAddress address(final @NotNull String address) {
+        try {
+            return InetAddress.getByName(address);
+        } catch (final Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
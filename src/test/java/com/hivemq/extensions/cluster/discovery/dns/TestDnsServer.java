@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DefaultDnsResponse;
+import io.netty.handler.codec.dns.DnsQuery;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponse;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.handler.codec.dns.DnsSection;
+import io.netty.handler.codec.dns.TcpDnsQueryDecoder;
+import io.netty.handler.codec.dns.TcpDnsResponseEncoder;
+import io.netty.util.ReferenceCountUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * In-process DNS server for tests. The answers are provided per question, {@code null} answers with NXDOMAIN.
+ * Queries can be dropped to simulate lost packets, or answered with an error response code. UDP answers with too many
+ * records are truncated, the full answer is served over TCP on the same port.
+ */
+class TestDnsServer implements AutoCloseable {
+
+    private final @NotNull Channel channel;
+    private final @NotNull Channel tcpChannel;
+    private final @NotNull AtomicInteger queryCount;
+    private final @NotNull AtomicInteger tcpQueryCount;
+    private final @NotNull AtomicInteger dropCount;
+    private final @NotNull AtomicReference<DnsResponseCode> errorCode;
+    private final @NotNull AtomicInteger maxUdpRecords;
+
+    private TestDnsServer(
+            final @NotNull Channel channel,
+            final @NotNull Channel tcpChannel,
+            final @NotNull AtomicInteger queryCount,
+            final @NotNull AtomicInteger tcpQueryCount,
+            final @NotNull AtomicInteger dropCount,
+            final @NotNull AtomicReference<DnsResponseCode> errorCode,
+            final @NotNull AtomicInteger maxUdpRecords) {
+        this.channel = channel;
+        this.tcpChannel = tcpChannel;
+        this.queryCount = queryCount;
+        this.tcpQueryCount = tcpQueryCount;
+        this.dropCount = dropCount;
+        this.errorCode = errorCode;
+        this.maxUdpRecords = maxUdpRecords;
+    }
+
+    static @NotNull TestDnsServer start(
+            final @NotNull EventLoopGroup eventLoopGroup,
+            final @NotNull Function<DnsQuestion, @Nullable List<DnsRecord>> answers) throws InterruptedException {
+        final var queryCount = new AtomicInteger();
+        final var tcpQueryCount = new AtomicInteger();
+        final var dropCount = new AtomicInteger();
+        final var errorCode = new AtomicReference<DnsResponseCode>();
+        final var maxUdpRecords = new AtomicInteger(Integer.MAX_VALUE);
+        final var channel = new Bootstrap().group(eventLoopGroup)
+                .channel(NioDatagramChannel.class)
+                .handler(new ChannelInitializer<NioDatagramChannel>() {
+                    @Override
+                    protected void initChannel(final @NotNull NioDatagramChannel channel) {
+                        channel.pipeline()
+                                .addLast(new DatagramDnsQueryDecoder(),
+                                        new DatagramDnsResponseEncoder(),
+                                        new SimpleChannelInboundHandler<DatagramDnsQuery>() {
+                                            @Override
+                                            protected void channelRead0(
+                                                    final @NotNull ChannelHandlerContext ctx,
+                                                    final @NotNull DatagramDnsQuery query) {
+                                                queryCount.incrementAndGet();
+                                                if (dropCount.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                                                    return;
+                                                }
+                                                final var response = new DatagramDnsResponse(query.recipient(),
+                                                        query.sender(),
+                                                        query.id());
+                                                ctx.writeAndFlush(respond(query,
+                                                        response,
+                                                        answers,
+                                                        errorCode.get(),
+                                                        maxUdpRecords.get()));
+                                            }
+                                        });
+                    }
+                })
+                .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .sync()
+                .channel();
+        final var tcpChannel = new ServerBootstrap().group(eventLoopGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(final @NotNull SocketChannel channel) {
+                        channel.pipeline()
+                                .addLast(new TcpDnsQueryDecoder(),
+                                        new TcpDnsResponseEncoder(),
+                                        new SimpleChannelInboundHandler<DnsQuery>() {
+                                            @Override
+                                            protected void channelRead0(
+                                                    final @NotNull ChannelHandlerContext ctx,
+                                                    final @NotNull DnsQuery query) {
+                                                tcpQueryCount.incrementAndGet();
+                                                final var response = new DefaultDnsResponse(query.id());
+                                                ctx.writeAndFlush(respond(query,
+                                                        response,
+                                                        answers,
+                                                        errorCode.get(),
+                                                        Integer.MAX_VALUE));
+                                            }
+                                        });
+                    }
+                })
+                .bind(channel.localAddress())
+                .sync()
+                .channel();
+        return new TestDnsServer(channel,
+                tcpChannel,
+                queryCount,
+                tcpQueryCount,
+                dropCount,
+                errorCode,
+                maxUdpRecords);
+    }
+
+    private static <R extends DnsResponse> @NotNull R respond(
+            final @NotNull DnsQuery query,
+            final @NotNull R response,
+            final @NotNull Function<DnsQuestion, @Nullable List<DnsRecord>> answers,
+            final @Nullable DnsResponseCode errorCode,
+            final int maxRecords) {
+        final DnsQuestion question = query.recordAt(DnsSection.QUESTION);
+        response.addRecord(DnsSection.QUESTION, question);
+        if (errorCode != null) {
+            response.setCode(errorCode);
+            return response;
+        }
+        final var records = answers.apply(question);
+        if (records == null) {
+            response.setCode(DnsResponseCode.NXDOMAIN);
+        } else if (records.size() > maxRecords) {
+            records.forEach(ReferenceCountUtil::release);
+            response.setTruncated(true);
+        } else {
+            records.forEach(record -> response.addRecord(DnsSection.ANSWER, record));
+        }
+        return response;
+    }
+
+    /**
+     * @return an A record of the given name, or an AAAA record for IPv6 addresses
+     */
+    static @NotNull DnsRecord addressRecord(final @NotNull String name, final @NotNull InetAddress address) {
+        final var bytes = address.getAddress();
+        return new DefaultDnsRawRecord(name,
+                bytes.length == 4 ? DnsRecordType.A : DnsRecordType.AAAA,
+                30,
+                Unpooled.wrappedBuffer(bytes));
+    }
+
+    /**
+     * @return a TXT record of the given name with one character string per text
+     */
+    static @NotNull DnsRawRecord txtRecord(final @NotNull String name, final @NotNull String... texts) {
+        final var content = Unpooled.buffer();
+        for (final var text : texts) {
+            content.writeByte(text.length()).writeBytes(text.getBytes(StandardCharsets.US_ASCII));
+        }
+        return new DefaultDnsRawRecord(name, DnsRecordType.TXT, 30, content);
+    }
+
+    @NotNull InetSocketAddress getAddress() {
+        return (InetSocketAddress) channel.localAddress();
+    }
+
+    int getQueryCount() {
+        return queryCount.get();
+    }
+
+    /**
+     * @param count the number of next queries that are not answered
+     */
+    void dropNextQueries(final int count) {
+        dropCount.set(count);
+    }
+
+    /**
+     * @param errorCode the response code all following queries are answered with, {@code null} to answer normally
+     */
+    void respondWith(final @Nullable DnsResponseCode errorCode) {
+        this.errorCode.set(errorCode);
+    }
+
+    /**
+     * @param maxUdpRecords the maximum number of records of an answer over UDP, answers with more records are truncated
+     */
+    void truncateAbove(final int maxUdpRecords) {
+        this.maxUdpRecords.set(maxUdpRecords);
+    }
+
+    /**
+     * @return the number of queries that were received over TCP
+     */
+    int getTcpQueryCount() {
+        return tcpQueryCount.get();
+    }
+
+    @Override
+    public void close() {
+        channel.close().syncUninterruptibly();
+        tcpChannel.close().syncUninterruptibly();
+    }
+}
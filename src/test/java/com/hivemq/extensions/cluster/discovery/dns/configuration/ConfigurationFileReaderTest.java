@@ -66,8 +66,8 @@ class ConfigurationFileReaderTest {
                 discoveryAddress:
                 resolutionTimeout:30Seconds""");
 
-        assertThatThrownBy(() -> configurationFileReader.get().getFileResolutionTimeout())
-                .isInstanceOf(UnsupportedOperationException.class)
+        assertThatThrownBy(configurationFileReader::get)
+                .isInstanceOf(ConfigurationException.class)
                 .hasMessageContaining("Cannot convert '30Seconds' to int");
     }
 
@@ -77,11 +77,35 @@ class ConfigurationFileReaderTest {
                 discoveryAddress:
                 reloadInterval:30Seconds""");
 
-        assertThatThrownBy(() -> configurationFileReader.get().getFileReloadInterval())
-                .isInstanceOf(UnsupportedOperationException.class)
+        assertThatThrownBy(configurationFileReader::get)
+                .isInstanceOf(ConfigurationException.class)
                 .hasMessageContaining("Cannot convert '30Seconds' to int");
     }
 
+    @Test
+    void whenTypoInCacheRefreshAhead_thenThrowException() throws Exception {
+        Files.writeString(configPath, """
+                discoveryAddress:
+                cacheRefreshAhead:80%""");
+
+        assertThatThrownBy(configurationFileReader::get)
+                .isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("Cannot convert '80%' to double");
+    }
+
+    @Test
+    void whenValuesAreBlankOrPadded_thenBlankValuesAreUnsetAndPaddedValuesAreTrimmed() throws Exception {
+        Files.writeString(configPath, """
+                resolutionTimeout:
+                reloadInterval:45\s
+                cacheRefreshAhead: 0.5""");
+
+        final var config = configurationFileReader.get();
+        assertThat(config.getFileResolutionTimeout()).isEqualTo(-1);
+        assertThat(config.getFileReloadInterval()).isEqualTo(45);
+        assertThat(config.getFileCacheRefreshAhead()).isEqualTo(0.5);
+    }
+
     @Test
     void whenConfigAtLegacyLocation_thenUseValues() throws Exception {
         final var legacyPath = tempDir.resolve(ConfigurationFileReader.LEGACY_CONFIG_PATH);
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018-present HiveMQ GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hivemq.extensions.cluster.discovery.dns.configuration;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigurationFileWatcherTest {
+
+    private final @NotNull LinkedBlockingQueue<DnsDiscoveryConfigExtended> updates = new LinkedBlockingQueue<>();
+
+    private @NotNull Path configPath;
+    private @NotNull ConfigurationFileWatcher configurationFileWatcher;
+
+    @TempDir
+    private @NotNull Path tempDir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        configPath = tempDir.resolve(ConfigurationFileReader.CONFIG_PATH);
+        Files.createDirectories(configPath.getParent());
+        Files.writeString(configPath, """
+                discoveryAddress:task.hivemq
+                reloadInterval:30""");
+        configurationFileWatcher =
+                new ConfigurationFileWatcher(new ConfigurationFileReader(tempDir.toFile()), updates::add);
+        configurationFileWatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        configurationFileWatcher.close();
+    }
+
+    @Test
+    void whenFileChanges_thenNewConfigurationIsApplied() throws Exception {
+        Files.writeString(configPath, """
+                discoveryAddress:task.hivemq
+                dnsServerAddress:127.0.0.1:5353
+                reloadInterval:60""");
+
+        final var configuration = updates.poll(10, TimeUnit.SECONDS);
+        assertThat(configuration).isNotNull();
+        assertThat(configuration.getReloadInterval()).isEqualTo(60);
+        assertThat(configuration.getDnsServerAddresses()).hasSize(1);
+    }
+
+    @Test
+    void whenFileIsInvalid_thenCurrentConfigurationIsKept() throws Exception {
+        Files.writeString(configPath, """
+                discoveryAddress:task.hivemq
+                reloadInterval:30Seconds""");
+
+        assertThat(updates.poll(ConfigurationFileWatcher.SETTLE_MILLIS * 5, TimeUnit.MILLISECONDS)).isNull();
+
+        Files.writeString(configPath, """
+                discoveryAddress:task.hivemq
+                reloadInterval:45""");
+
+        final var configuration = updates.poll(10, TimeUnit.SECONDS);
+        assertThat(configuration).isNotNull();
+        assertThat(configuration.getReloadInterval()).isEqualTo(45);
+    }
+
+    @Test
+    void whenConfigMapDataIsReplaced_thenNewConfigurationIsApplied() throws Exception {
+        // the layout of a Kubernetes ConfigMap volume
+        final var extensionHome = tempDir.resolve("config-map");
+        final var configDirectory =
+                Files.createDirectories(extensionHome.resolve(configPath.getParent().getFileName()));
+        final var firstVersion = Files.createDirectories(configDirectory.resolve("..2026_10_17_10_00_00.1"));
+        Files.writeString(firstVersion.resolve(configPath.getFileName()), "discoveryAddress:task.hivemq");
+        final var data = configDirectory.resolve(ConfigurationFileWatcher.CONFIG_MAP_DATA);
+        Files.createSymbolicLink(data, firstVersion.getFileName());
+        Files.createSymbolicLink(configDirectory.resolve(configPath.getFileName()),
+                ConfigurationFileWatcher.CONFIG_MAP_DATA.resolve(configPath.getFileName()));
+        try (final var watcher = new ConfigurationFileWatcher(new ConfigurationFileReader(extensionHome.toFile()),
+                updates::add)) {
+            watcher.start();
+
+            // an update writes a new version and replaces the data link, the link of the file stays untouched
+            final var secondVersion = Files.createDirectories(configDirectory.resolve("..2026_10_17_10_05_00.2"));
+            Files.writeString(secondVersion.resolve(configPath.getFileName()), """
+                    discoveryAddress:task.hivemq
+                    reloadInterval:90""");
+            final var dataTmp = Files.createSymbolicLink(configDirectory.resolve("..data_tmp"),
+                    secondVersion.getFileName());
+            Files.move(dataTmp, data, StandardCopyOption.ATOMIC_MOVE);
+
+            final var configuration = updates.poll(10, TimeUnit.SECONDS);
+            assertThat(configuration).isNotNull();
+            assertThat(configuration.getReloadInterval()).isEqualTo(90);
+        }
+    }
+
+    @Test
+    void whenOtherFileChanges_thenConfigurationIsNotReloaded() throws Exception {
+        Files.writeString(configPath.resolveSibling("other.properties"), "reloadInterval:60");
+
+        assertThat(updates.poll(ConfigurationFileWatcher.SETTLE_MILLIS * 5, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void whenDirectoryDoesNotExist_thenStartFails() {
+        final var configurationFileReader = new ConfigurationFileReader(tempDir.resolve("missing").toFile());
+        final var watcher = new ConfigurationFileWatcher(configurationFileReader, updates::add);
+
+        assertThatThrownBy(watcher::start).isInstanceOf(IOException.class);
+    }
+}
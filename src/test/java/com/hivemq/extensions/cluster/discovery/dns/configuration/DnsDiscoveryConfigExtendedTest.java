@@ -19,6 +19,8 @@ package com.hivemq.extensions.cluster.discovery.dns.configuration;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetSocketAddress;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
@@ -85,6 +87,26 @@ class DnsDiscoveryConfigExtendedTest {
         assertThatThrownBy(configExtended::dnsServerAddress).isInstanceOf(ConfigurationException.class);
     }
 
+    @Test
+    void test_dnsServerAddress_multiple_servers() {
+        when(configEnvironment.getEnvDnsServerAddress()).thenReturn("10.0.0.1:5353, 10.0.0.2");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.dnsServerAddress();
+        assertThat(configExtended.getDnsServerAddresses()).containsExactly(new InetSocketAddress("10.0.0.1", 5353),
+                new InetSocketAddress("10.0.0.2", 53));
+        assertThat(configExtended.getDnsServerAddress()).hasValue(new InetSocketAddress("10.0.0.1", 5353));
+    }
+
+    @Test
+    void test_hedgeDelay_env() {
+        when(configEnvironment.getEnvHedgeDelay()).thenReturn("150");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.hedgeDelay();
+        assertThat(configExtended.getHedgeDelay()).isEqualTo(150);
+    }
+
     @Test
     void test_discoveryAddress_env() {
         when(configEnvironment.getEnvDiscoveryAddress()).thenReturn("Test.Env");
@@ -104,6 +126,15 @@ class DnsDiscoveryConfigExtendedTest {
         assertThat(configExtended.getDiscoveryAddress()).hasValue("Test.File");
     }
 
+    @Test
+    void test_discoveryAddress_multiple_names() {
+        when(configEnvironment.getEnvDiscoveryAddress()).thenReturn(" zone-a.hivemq, zone-b.hivemq,,zone-a.hivemq ");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.discoveryAddress();
+        assertThat(configExtended.getDiscoveryAddresses()).containsExactly("zone-a.hivemq", "zone-b.hivemq");
+    }
+
     @Test
     void test_discoveryAddress_no_env_no_file() {
         when(configEnvironment.getEnvDiscoveryAddress()).thenReturn(null);
@@ -171,4 +202,418 @@ class DnsDiscoveryConfigExtendedTest {
         configExtended.reloadInterval();
         assertThat(configExtended.getReloadInterval()).isEqualTo(30);
     }
+
+    @Test
+    void test_reloadInterval_zero_fails() {
+        when(configEnvironment.getEnvReloadInterval()).thenReturn(null);
+        when(configFile.getFileReloadInterval()).thenReturn(0);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::reloadInterval).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'reloadInterval'");
+    }
+
+    @Test
+    void test_reloadInterval_negative_env_fails() {
+        when(configEnvironment.getEnvReloadInterval()).thenReturn("-5");
+        when(configFile.getFileReloadInterval()).thenReturn(60);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::reloadInterval).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'reloadInterval'");
+    }
+
+    @Test
+    void test_recordType_env() {
+        when(configEnvironment.getEnvRecordType()).thenReturn("srv");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.recordType();
+        assertThat(configExtended.getRecordType()).isEqualTo(DnsDiscoveryRecordType.SRV);
+    }
+
+    @Test
+    void test_recordType_file() {
+        when(configEnvironment.getEnvRecordType()).thenReturn(null);
+        when(configFile.getFileRecordType()).thenReturn("SRV");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.recordType();
+        assertThat(configExtended.getRecordType()).isEqualTo(DnsDiscoveryRecordType.SRV);
+    }
+
+    @Test
+    void test_recordType_no_env_no_file() {
+        when(configEnvironment.getEnvRecordType()).thenReturn(null);
+        when(configFile.getFileRecordType()).thenReturn(null);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.recordType();
+        assertThat(configExtended.getRecordType()).isEqualTo(DnsDiscoveryRecordType.A);
+    }
+
+    @Test
+    void test_addressFamily_env() {
+        when(configEnvironment.getEnvAddressFamily()).thenReturn("ipv6-preferred");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.addressFamily();
+        assertThat(configExtended.getAddressFamily()).isEqualTo(DnsDiscoveryAddressFamily.IPV6_PREFERRED);
+    }
+
+    @Test
+    void test_addressFamily_file() {
+        when(configEnvironment.getEnvAddressFamily()).thenReturn(null);
+        when(configFile.getFileAddressFamily()).thenReturn("IPV4_ONLY");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.addressFamily();
+        assertThat(configExtended.getAddressFamily()).isEqualTo(DnsDiscoveryAddressFamily.IPV4_ONLY);
+    }
+
+    @Test
+    void test_addressFamily_no_env_no_file() {
+        when(configEnvironment.getEnvAddressFamily()).thenReturn(null);
+        when(configFile.getFileAddressFamily()).thenReturn(null);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.addressFamily();
+        assertThat(configExtended.getAddressFamily()).isEqualTo(DnsDiscoveryAddressFamily.DUAL);
+    }
+
+    @Test
+    void test_addressFamily_file_invalid() {
+        when(configEnvironment.getEnvAddressFamily()).thenReturn(null);
+        when(configFile.getFileAddressFamily()).thenReturn("IPX");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::addressFamily).isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void test_recordType_file_invalid() {
+        when(configEnvironment.getEnvRecordType()).thenReturn(null);
+        when(configFile.getFileRecordType()).thenReturn("MX");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::recordType).isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void test_cacheMaxTtl_env() {
+        when(configEnvironment.getEnvCacheMaxTtl()).thenReturn("120");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheMaxTtl();
+        assertThat(configExtended.getCacheMaxTtl()).isEqualTo(120);
+    }
+
+    @Test
+    void test_cacheMaxTtl_file() {
+        when(configEnvironment.getEnvCacheMaxTtl()).thenReturn(null);
+        when(configFile.getFileCacheMaxTtl()).thenReturn(60);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheMaxTtl();
+        assertThat(configExtended.getCacheMaxTtl()).isEqualTo(60);
+    }
+
+    @Test
+    void test_cacheMaxTtl_no_env_no_file() {
+        when(configEnvironment.getEnvCacheMaxTtl()).thenReturn(null);
+        when(configFile.getFileCacheMaxTtl()).thenReturn(-1);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheMaxTtl();
+        assertThat(configExtended.getCacheMaxTtl()).isEqualTo(0);
+    }
+
+    @Test
+    void test_cacheNegativeTtl_env() {
+        when(configEnvironment.getEnvCacheNegativeTtl()).thenReturn("10");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheNegativeTtl();
+        assertThat(configExtended.getCacheNegativeTtl()).isEqualTo(10);
+    }
+
+    @Test
+    void test_cacheNegativeTtl_file() {
+        when(configEnvironment.getEnvCacheNegativeTtl()).thenReturn(null);
+        when(configFile.getFileCacheNegativeTtl()).thenReturn(5);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheNegativeTtl();
+        assertThat(configExtended.getCacheNegativeTtl()).isEqualTo(5);
+    }
+
+    @Test
+    void test_cacheRefreshAhead_env() {
+        when(configEnvironment.getEnvCacheRefreshAhead()).thenReturn("0.5");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheRefreshAhead();
+        assertThat(configExtended.getCacheRefreshAhead()).isEqualTo(0.5);
+    }
+
+    @Test
+    void test_cacheRefreshAhead_file_out_of_range() {
+        when(configEnvironment.getEnvCacheRefreshAhead()).thenReturn(null);
+        when(configFile.getFileCacheRefreshAhead()).thenReturn(1.5);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.cacheRefreshAhead();
+        assertThat(configExtended.getCacheRefreshAhead()).isEqualTo(0.8);
+    }
+
+    @Test
+    void test_maxStaleness_env() {
+        when(configEnvironment.getEnvMaxStaleness()).thenReturn("120");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.maxStaleness();
+        assertThat(configExtended.getMaxStaleness()).isEqualTo(120);
+    }
+
+    @Test
+    void test_maxStaleness_file() {
+        when(configEnvironment.getEnvMaxStaleness()).thenReturn(null);
+        when(configFile.getFileMaxStaleness()).thenReturn(300);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.maxStaleness();
+        assertThat(configExtended.getMaxStaleness()).isEqualTo(300);
+    }
+
+    @Test
+    void test_maxStaleness_default() {
+        when(configEnvironment.getEnvMaxStaleness()).thenReturn(null);
+        when(configFile.getFileMaxStaleness()).thenReturn(-1);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.maxStaleness();
+        assertThat(configExtended.getMaxStaleness()).isEqualTo(0);
+    }
+
+    @Test
+    void test_resolutionTimeoutMillis_env() {
+        when(configEnvironment.getEnvResolutionTimeoutMillis()).thenReturn("250");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.resolutionTimeoutMillis();
+        assertThat(configExtended.getResolutionTimeoutMillis()).isEqualTo(250);
+    }
+
+    @Test
+    void test_resolutionTimeoutMillis_fallback_to_seconds() {
+        when(configEnvironment.getEnvResolutionTimeout()).thenReturn("5");
+        when(configEnvironment.getEnvResolutionTimeoutMillis()).thenReturn(null);
+        when(configFile.getFileResolutionTimeoutMillis()).thenReturn(-1);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.resolutionTimeout();
+        configExtended.resolutionTimeoutMillis();
+        assertThat(configExtended.getResolutionTimeoutMillis()).isEqualTo(5_000);
+    }
+
+    @Test
+    void test_retries_file() {
+        when(configFile.getFileQueryTimeout()).thenReturn(200);
+        when(configFile.getFileQueryRetries()).thenReturn(3);
+        when(configFile.getFileRetryBackoff()).thenReturn(50);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.queryTimeout();
+        configExtended.queryRetries();
+        configExtended.retryBackoff();
+        assertThat(configExtended.getQueryTimeout()).isEqualTo(200);
+        assertThat(configExtended.getQueryRetries()).isEqualTo(3);
+        assertThat(configExtended.getRetryBackoff()).isEqualTo(50);
+    }
+
+    @Test
+    void test_reloadIntervalBounds_env() {
+        when(configEnvironment.getEnvReloadIntervalMin()).thenReturn("5");
+        when(configEnvironment.getEnvReloadIntervalMax()).thenReturn("300");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.reloadIntervalMin();
+        configExtended.reloadIntervalMax();
+        assertThat(configExtended.getReloadIntervalMin()).isEqualTo(5);
+        assertThat(configExtended.getReloadIntervalMax()).isEqualTo(300);
+    }
+
+    @Test
+    void test_reloadIntervalBounds_min_exceeds_max_fails() {
+        when(configEnvironment.getEnvReloadIntervalMin()).thenReturn("300");
+        when(configEnvironment.getEnvReloadIntervalMax()).thenReturn("5");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.reloadIntervalMin();
+        assertThatThrownBy(configExtended::reloadIntervalMax).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'reloadIntervalMin'")
+                .hasMessageContaining("'reloadIntervalMax'");
+    }
+
+    @Test
+    void test_reloadIntervalMin_negative_fails() {
+        when(configEnvironment.getEnvReloadIntervalMin()).thenReturn("-1");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::reloadIntervalMin).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'reloadIntervalMin'");
+    }
+
+    @Test
+    void test_timeouts_and_retries_negative_fail() {
+        when(configEnvironment.getEnvResolutionTimeout()).thenReturn("-1");
+        when(configEnvironment.getEnvResolutionTimeoutMillis()).thenReturn("-1");
+        when(configEnvironment.getEnvQueryTimeout()).thenReturn("-1");
+        when(configEnvironment.getEnvQueryRetries()).thenReturn("-1");
+        when(configEnvironment.getEnvProbeTimeout()).thenReturn("-1");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::resolutionTimeout).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'resolutionTimeout'");
+        assertThatThrownBy(configExtended::resolutionTimeoutMillis).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'resolutionTimeoutMillis'");
+        assertThatThrownBy(configExtended::queryTimeout).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'queryTimeout'");
+        assertThatThrownBy(configExtended::queryRetries).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'queryRetries'");
+        assertThatThrownBy(configExtended::probeTimeout).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'probeTimeout'");
+    }
+
+    @Test
+    void test_cacheTtls_negative_fail() {
+        when(configFile.getFileCacheMaxTtl()).thenReturn(-10);
+        when(configFile.getFileCacheNegativeTtl()).thenReturn(-10);
+        when(configFile.getFileProbeCacheTtl()).thenReturn(-10);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::cacheMaxTtl).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'cacheMaxTtl'");
+        assertThatThrownBy(configExtended::cacheNegativeTtl).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'cacheNegativeTtl'");
+        assertThatThrownBy(configExtended::probeCacheTtl).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'probeCacheTtl'");
+    }
+
+    @Test
+    void test_probeConcurrency_zero_fails() {
+        when(configEnvironment.getEnvProbeConcurrency()).thenReturn("0");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::probeConcurrency).isInstanceOf(ConfigurationException.class)
+                .hasMessageContaining("'probeConcurrency'");
+    }
+
+    @Test
+    void test_ednsPayloadSize_file() {
+        when(configEnvironment.getEnvEdnsPayloadSize()).thenReturn(null);
+        when(configFile.getFileEdnsPayloadSize()).thenReturn(4096);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.ednsPayloadSize();
+        assertThat(configExtended.getEdnsPayloadSize()).isEqualTo(4096);
+    }
+
+    @Test
+    void test_ednsPayloadSize_default() {
+        when(configEnvironment.getEnvEdnsPayloadSize()).thenReturn(null);
+        when(configFile.getFileEdnsPayloadSize()).thenReturn(-1);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.ednsPayloadSize();
+        assertThat(configExtended.getEdnsPayloadSize()).isEqualTo(0);
+    }
+
+    @Test
+    void test_reloadJitter_env() {
+        when(configEnvironment.getEnvReloadJitter()).thenReturn("20");
+        when(configFile.getFileReloadJitter()).thenReturn(10);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.reloadJitter();
+        assertThat(configExtended.getReloadJitter()).isEqualTo(20);
+    }
+
+    @Test
+    void test_reloadJitter_invalid_env_falls_back_to_file() {
+        when(configEnvironment.getEnvReloadJitter()).thenReturn("ten");
+        when(configFile.getFileReloadJitter()).thenReturn(10);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.reloadJitter();
+        assertThat(configExtended.getReloadJitter()).isEqualTo(10);
+    }
+
+    @Test
+    void test_reloadJitter_default() {
+        when(configEnvironment.getEnvReloadJitter()).thenReturn(null);
+        when(configFile.getFileReloadJitter()).thenReturn(-1);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.reloadJitter();
+        assertThat(configExtended.getReloadJitter()).isEqualTo(0);
+    }
+
+    @Test
+    void test_probeMode_file() {
+        when(configEnvironment.getEnvProbeMode()).thenReturn(null);
+        when(configFile.getFileProbeMode()).thenReturn("prioritize");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.probeMode();
+        assertThat(configExtended.getProbeMode()).isEqualTo(DnsDiscoveryProbeMode.PRIORITIZE);
+    }
+
+    @Test
+    void test_probeMode_no_env_no_file() {
+        when(configEnvironment.getEnvProbeMode()).thenReturn(null);
+        when(configFile.getFileProbeMode()).thenReturn(null);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.probeMode();
+        assertThat(configExtended.getProbeMode()).isEqualTo(DnsDiscoveryProbeMode.OFF);
+    }
+
+    @Test
+    void test_probeMode_env_invalid() {
+        when(configEnvironment.getEnvProbeMode()).thenReturn("PING");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        assertThatThrownBy(configExtended::probeMode).isInstanceOf(ConfigurationException.class);
+    }
+
+    @Test
+    void test_probeTimeout_default() {
+        when(configEnvironment.getEnvProbeTimeout()).thenReturn(null);
+        when(configFile.getFileProbeTimeout()).thenReturn(-1);
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.probeTimeout();
+        assertThat(configExtended.getProbeTimeout()).isEqualTo(1000);
+    }
+
+    @Test
+    void test_zone_env() {
+        when(configEnvironment.getEnvZone()).thenReturn(" eu-central-1a ");
+        when(configFile.getFileZone()).thenReturn("eu-central-1b");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.zone();
+        assertThat(configExtended.getZone()).isEqualTo("eu-central-1a");
+    }
+
+    @Test
+    void test_zone_no_env_no_file() {
+        when(configEnvironment.getEnvZone()).thenReturn(null);
+        when(configFile.getFileZone()).thenReturn(" ");
+
+        final var configExtended = new DnsDiscoveryConfigExtended(configFile, configEnvironment);
+        configExtended.zone();
+        assertThat(configExtended.getZone()).isNull();
+    }
 }